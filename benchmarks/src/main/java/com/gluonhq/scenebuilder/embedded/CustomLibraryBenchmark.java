@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.library.user.UserLibrary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creation of the custom library from {@code jarCount} generated jars, as done by
+ * {@code SceneBuilderPane::createCustomLibrary}: the pre-scan, with and without an
+ * up-to-date component index, and the first exploration of the user library.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomLibraryBenchmark {
+
+    @Param({"10", "50"})
+    int jarCount;
+
+    @Param({"100"})
+    int classCount;
+
+    private Path folder;
+    private Path libraryFolder;
+    private List<Path> jars;
+    private ComponentIndex componentIndex;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        folder = Files.createTempDirectory("sb-library-bench");
+        jars = SyntheticJars.create(folder.resolve("jars"), jarCount, classCount);
+        libraryFolder = Files.createDirectories(folder.resolve("Library"));
+        componentIndex = ComponentIndex.of(Files.createDirectories(folder.resolve("index")));
+        componentIndex.update(jars);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticJars.delete(folder);
+    }
+
+    @Benchmark
+    public List<Path> prescan() {
+        return JarPreScanner.prescan(jars, LibraryFilter.ALL);
+    }
+
+    @Benchmark
+    public List<Path> prescanWithIndex() {
+        return JarPreScanner.prescan(jars, LibraryFilter.ALL, componentIndex);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 10)
+    public UserLibrary createUserLibrary() throws InterruptedException {
+        List<Path> paths = JarPreScanner.prescan(jars, LibraryFilter.ALL, componentIndex);
+        UserLibrary userLibrary = new UserLibrary(libraryFolder.toString(), () -> paths, List::of);
+        CountDownLatch explored = new CountDownLatch(1);
+        userLibrary.setOnUpdatedJarReports(jarReports -> explored.countDown());
+        userLibrary.startWatching();
+        try {
+            explored.await(1, TimeUnit.MINUTES);
+        } finally {
+            userLibrary.stopWatching();
+        }
+        return userLibrary;
+    }
+}
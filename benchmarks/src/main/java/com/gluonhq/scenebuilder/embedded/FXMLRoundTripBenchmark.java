@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.editor.EditorController;
+import javafx.application.Platform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Open and serialization of generated documents with {@code nodeCount} nodes, through
+ * {@link EditorController#setFxmlText(String, boolean)} and {@link EditorController#getFxmlText(boolean)}
+ * in the JavaFX application thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FXMLRoundTripBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int nodeCount;
+
+    private EditorController editorController;
+    private String fxmlText;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            Platform.startup(latch::countDown);
+        } catch (IllegalStateException e) {
+            // already started by a previous trial in this fork
+            latch.countDown();
+        }
+        latch.await();
+        fxmlText = createFxml(nodeCount);
+        editorController = onFxThread(EditorController::new);
+        onFxThread(() -> {
+            editorController.setFxmlText(fxmlText, false);
+            return null;
+        });
+    }
+
+    @Benchmark
+    public Object open() throws Exception {
+        return onFxThread(() -> {
+            editorController.setFxmlText(fxmlText, false);
+            return editorController.getFxomDocument();
+        });
+    }
+
+    @Benchmark
+    public String serialize() throws Exception {
+        return onFxThread(() -> editorController.getFxmlText(false));
+    }
+
+    @Benchmark
+    public String roundTrip() throws Exception {
+        return onFxThread(() -> {
+            editorController.setFxmlText(fxmlText, false);
+            return editorController.getFxmlText(false);
+        });
+    }
+
+    static String createFxml(int nodeCount) {
+        StringBuilder sb = new StringBuilder("""
+                <?xml version="1.0" encoding="UTF-8"?>
+
+                <?import javafx.scene.control.Button?>
+                <?import javafx.scene.control.Label?>
+                <?import javafx.scene.control.TextField?>
+                <?import javafx.scene.layout.HBox?>
+                <?import javafx.scene.layout.VBox?>
+
+                <VBox xmlns="http://javafx.com/javafx/23" xmlns:fx="http://javafx.com/fxml/1" spacing="4.0">
+                   <children>
+                """);
+        for (int i = 0; i < nodeCount / 4; i++) {
+            sb.append("""
+                          <HBox spacing="4.0">
+                             <children>
+                                <Label fx:id="label%1$d" text="Label %1$d" />
+                                <TextField fx:id="field%1$d" promptText="Field %1$d" />
+                                <Button fx:id="button%1$d" mnemonicParsing="false" text="Button %1$d" />
+                             </children>
+                          </HBox>
+                    """.formatted(i));
+        }
+        sb.append("""
+                   </children>
+                </VBox>
+                """);
+        return sb.toString();
+    }
+
+    static <T> T onFxThread(Callable<T> callable) throws Exception {
+        FutureTask<T> task = new FutureTask<>(callable);
+        Platform.runLater(task);
+        return task.get();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.editor.EditorPlatform;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of the action of the key events handled by the key filter of {@link SBController}:
+ * plain typing, which has no action, and shortcuts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyDispatchBenchmark {
+
+    private KeyMap keyMap;
+    private KeyEvent[] typing;
+    private KeyEvent[] shortcuts;
+
+    @Setup
+    public void setup() {
+        keyMap = new KeyMap();
+        typing = new KeyEvent[] {
+                key(KeyCode.H, false, false), key(KeyCode.E, false, false), key(KeyCode.L, false, false),
+                key(KeyCode.O, false, false), key(KeyCode.SPACE, false, false), key(KeyCode.DIGIT1, false, false),
+                key(KeyCode.A, true, false), key(KeyCode.BACK_SPACE, false, false)
+        };
+        shortcuts = new KeyEvent[] {
+                key(KeyCode.C, false, true), key(KeyCode.V, false, true), key(KeyCode.Z, false, true),
+                key(KeyCode.Y, false, true), key(KeyCode.A, true, true), key(KeyCode.S, false, true)
+        };
+    }
+
+    @Benchmark
+    public void typing(Blackhole blackhole) {
+        for (KeyEvent event : typing) {
+            blackhole.consume(keyMap.find(event));
+        }
+    }
+
+    @Benchmark
+    public void shortcuts(Blackhole blackhole) {
+        for (KeyEvent event : shortcuts) {
+            blackhole.consume(keyMap.find(event));
+        }
+    }
+
+    private static KeyEvent key(KeyCode code, boolean shift, boolean shortcut) {
+        boolean control = shortcut && !EditorPlatform.IS_MAC;
+        boolean meta = shortcut && EditorPlatform.IS_MAC;
+        return new KeyEvent(KeyEvent.KEY_PRESSED, "", "", code, shift, control, false, meta);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Generates jars for the benchmarks. Classes only have a header (access flags, name and
+ * superclass), which is all the scanners read.
+ */
+final class SyntheticJars {
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_SUPER = 0x0020;
+
+    private SyntheticJars() {}
+
+    /**
+     * Creates {@code jarCount} jars with {@code classCount} classes each. Jars with an
+     * even index have some subclasses of {@code javafx.scene.control.Control}, and the
+     * others only have plain classes.
+     */
+    static List<Path> create(Path folder, int jarCount, int classCount) throws IOException {
+        Files.createDirectories(folder);
+        List<Path> jars = new ArrayList<>(jarCount);
+        for (int i = 0; i < jarCount; i++) {
+            String pkg = String.format("synth/p%04d", i);
+            Path jar = folder.resolve(String.format("synth%04d.jar", i));
+            try (OutputStream out = Files.newOutputStream(jar);
+                 ZipOutputStream zip = new ZipOutputStream(out)) {
+                for (int c = 0; c < classCount; c++) {
+                    String name = pkg + "/C" + c;
+                    String superName = i % 2 == 0 && c % 10 == 0 ? "javafx/scene/control/Control" : "java/lang/Object";
+                    zip.putNextEntry(new ZipEntry(name + ".class"));
+                    zip.write(classFile(name, superName));
+                    zip.closeEntry();
+                }
+            }
+            jars.add(jar);
+        }
+        return jars;
+    }
+
+    static void delete(Path folder) throws IOException {
+        if (!Files.exists(folder)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static byte[] classFile(String name, String superName) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(65);
+        // constant pool: #1 utf8 name, #2 class #1, #3 utf8 super, #4 class #3
+        out.writeShort(5);
+        out.writeByte(1);
+        out.writeUTF(name);
+        out.writeByte(7);
+        out.writeShort(1);
+        out.writeByte(1);
+        out.writeUTF(superName);
+        out.writeByte(7);
+        out.writeShort(3);
+        out.writeShort(ACC_PUBLIC | ACC_SUPER);
+        out.writeShort(2);
+        out.writeShort(4);
+        // interfaces, fields, methods, attributes
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(0);
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import java.nio.file.Path;
+
+import static com.oracle.javafx.scenebuilder.kit.editor.EditorPlatform.IS_LINUX;
+import static com.oracle.javafx.scenebuilder.kit.editor.EditorPlatform.IS_MAC;
+import static com.oracle.javafx.scenebuilder.kit.editor.EditorPlatform.IS_WINDOWS;
+
+/**
+ * Folders of the application data, the same ones used by the Scene Builder application.
+ */
+final class AppData {
+
+    private static String applicationDataFolder;
+    private static String userLibraryFolder;
+
+    private AppData() {}
+
+    static Path getApplicationDataPath() {
+        String folder = getApplicationDataFolder();
+        return folder == null ? null : Path.of(folder);
+    }
+
+    static Path getRecoveryPath() {
+        Path path = getApplicationDataPath();
+        return path == null ? null : path.resolve("Recovery");
+    }
+
+    static String getUserLibraryFolder() {
+        if (userLibraryFolder == null) {
+            userLibraryFolder = getApplicationDataFolder() + "/Library";
+        }
+        return userLibraryFolder;
+    }
+
+    private static String getApplicationDataFolder() {
+        if (applicationDataFolder == null) {
+            final String appName = "Scene Builder";
+            if (IS_WINDOWS) {
+                applicationDataFolder = System.getenv("APPDATA") + "\\" + appName;
+            } else if (IS_MAC) {
+                applicationDataFolder = System.getProperty("user.home") + "/Library/Application Support/" + appName;
+            } else if (IS_LINUX) {
+                applicationDataFolder = System.getProperty("user.home") + "/.scenebuilder";
+            }
+        }
+        return applicationDataFolder;
+    }
+}
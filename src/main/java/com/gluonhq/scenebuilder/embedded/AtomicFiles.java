@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes files atomically, so a crash or a failed write never leaves a partially written file
+ * behind, while keeping the symbolic links, permissions and owner of the file being replaced.
+ */
+final class AtomicFiles {
+
+    private static final Logger LOGGER = Logger.getLogger(AtomicFiles.class.getName());
+    private static final int MAX_LINKS = 40;
+
+    @FunctionalInterface
+    interface Writer {
+        void write(Path path) throws IOException;
+    }
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Writes the target file by means of a temporary file in the same folder, which is then moved
+     * over the target, so the target is never left partially written. If the target is a symbolic
+     * link, the file it links to is written, and the permissions and owner of an existing file are
+     * kept.
+     */
+    static void write(Path target, Writer writer) throws IOException {
+        Path file = resolveLinks(target.toAbsolutePath());
+        Path folder = file.getParent();
+        Files.createDirectories(folder);
+        Path tmp = createTempFile(folder, file.getFileName().toString());
+        try {
+            writer.write(tmp);
+            if (Files.exists(file)) {
+                copyAttributes(file, tmp);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // Files.createTempFile would create it with owner only permissions, new files get the default ones
+    private static Path createTempFile(Path folder, String name) throws IOException {
+        while (true) {
+            Path tmp = folder.resolve("." + name + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                return Files.createFile(tmp);
+            } catch (FileAlreadyExistsException e) {
+                // try another name
+            }
+        }
+    }
+
+    // also follows links to files that don't exist yet, which toRealPath can't resolve
+    private static Path resolveLinks(Path path) throws IOException {
+        if (Files.exists(path)) {
+            return path.toRealPath();
+        }
+        for (int i = 0; i < MAX_LINKS && Files.isSymbolicLink(path); i++) {
+            path = path.resolveSibling(Files.readSymbolicLink(path)).normalize();
+        }
+        return path;
+    }
+
+    private static void copyAttributes(Path source, Path target) throws IOException {
+        PosixFileAttributeView sourcePosix = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+        PosixFileAttributeView targetPosix = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        if (sourcePosix != null && targetPosix != null) {
+            PosixFileAttributes attributes = sourcePosix.readAttributes();
+            targetPosix.setPermissions(attributes.permissions());
+            // only allowed to privileged users, or for a group the user belongs to, otherwise the
+            // ones of the user are kept
+            try {
+                targetPosix.setOwner(attributes.owner());
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Can't keep the owner of " + source, e);
+            }
+            try {
+                targetPosix.setGroup(attributes.group());
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Can't keep the group of " + source, e);
+            }
+        }
+        AclFileAttributeView sourceAcl = Files.getFileAttributeView(source, AclFileAttributeView.class);
+        AclFileAttributeView targetAcl = Files.getFileAttributeView(target, AclFileAttributeView.class);
+        if (sourceAcl != null && targetAcl != null) {
+            targetAcl.setAcl(sourceAcl.getAcl());
+        }
+    }
+}
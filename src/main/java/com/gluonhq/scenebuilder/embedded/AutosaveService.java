@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.editor.EditorController;
+import com.oracle.javafx.scenebuilder.kit.fxom.FXOMDocument;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.util.Duration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Periodically writes the document to a recovery journal, when it has changed since the last
+ * snapshot. The FXML text is taken in the JavaFX Application Thread, while the journal is written
+ * in the background.
+ * <p>
+ * Each service holds a lock on its journal, so journals that can be locked belong to editors that
+ * didn't finish properly, and can be offered for recovery.
+ */
+final class AutosaveService {
+
+    private static final Logger LOGGER = Logger.getLogger(AutosaveService.class.getName());
+
+    static final Duration DEFAULT_INTERVAL = Duration.seconds(30);
+
+    private static final String JOURNAL_EXTENSION = ".fxml";
+    private static final String METADATA_EXTENSION = ".properties";
+    private static final String LOCK_EXTENSION = ".lock";
+    private static final String LOCATION_KEY = "location";
+
+    // journals being offered for recovery in this process
+    private static final Set<Path> CLAIMED_JOURNALS = ConcurrentHashMap.newKeySet();
+    // lock files held by the services of this process: on POSIX, closing any channel of a file
+    // releases all the locks the process holds on it, so these must never be probed
+    private static final Set<Path> HELD_LOCKS = new HashSet<>();
+
+    record Journal(Path file, String fxmlText, URL location) {
+
+        void discard() {
+            SBExecutors.background().execute(() -> {
+                deleteJournal(file);
+                try {
+                    Files.deleteIfExists(sibling(file, LOCK_EXTENSION));
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, "Error deleting recovery lock of " + file, e);
+                }
+                CLAIMED_JOURNALS.remove(file);
+            });
+        }
+    }
+
+    private final EditorController editorController;
+    private final Path folder;
+    private final Path journalFile;
+    private final FXMLWriter writer = new FXMLWriter(SBExecutors.background());
+    private final Timeline timeline = new Timeline();
+
+    private FXOMDocument snapshotDocument;
+    private int snapshotRevision;
+    private FXOMDocument cleanDocument;
+    private int cleanRevision;
+    private boolean suspended;
+    private CompletableFuture<?> pendingWrite = CompletableFuture.completedFuture(null);
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private boolean running;
+
+    AutosaveService(EditorController editorController, Path folder) {
+        this.editorController = editorController;
+        this.folder = folder;
+        this.journalFile = folder.resolve(UUID.randomUUID() + JOURNAL_EXTENSION);
+        timeline.setCycleCount(Animation.INDEFINITE);
+        setInterval(DEFAULT_INTERVAL);
+    }
+
+    void setInterval(Duration interval) {
+        timeline.stop();
+        if (interval == null || interval.lessThanOrEqualTo(Duration.ZERO)) {
+            timeline.getKeyFrames().clear();
+            return;
+        }
+        timeline.getKeyFrames().setAll(new KeyFrame(interval, e -> snapshot()));
+        if (running) {
+            timeline.play();
+        }
+    }
+
+    Duration getInterval() {
+        return timeline.getKeyFrames().isEmpty() ? Duration.ZERO : timeline.getKeyFrames().getFirst().getTime();
+    }
+
+    void start() {
+        running = true;
+        markClean();
+        if (!timeline.getKeyFrames().isEmpty()) {
+            timeline.play();
+        }
+        SBExecutors.background().execute(this::lock);
+    }
+
+    void stop() {
+        running = false;
+        timeline.stop();
+        pendingWrite.whenCompleteAsync((r, t) -> {
+            deleteJournal(journalFile);
+            unlock();
+        }, SBExecutors.background());
+    }
+
+    /**
+     * The current document doesn't need to be recovered, either because it was just loaded or saved
+     */
+    void markClean() {
+        markClean(editorController.getFxomDocument(), editorController.getJobManager().getRevision());
+    }
+
+    void markClean(FXOMDocument document, int revision) {
+        snapshotDocument = document;
+        snapshotRevision = revision;
+        cleanDocument = document;
+        cleanRevision = revision;
+        pendingWrite = pendingWrite.whenCompleteAsync((r, t) -> deleteJournal(journalFile), SBExecutors.background());
+    }
+
+    /**
+     * The current document has to be journaled in the next snapshot, even if it wasn't edited
+     */
+    void markDirty() {
+        snapshotDocument = null;
+    }
+
+    /**
+     * Returns true if the document has changed since it was last marked as clean
+     */
+    boolean isModified() {
+        return editorController.getFxomDocument() != cleanDocument ||
+                editorController.getJobManager().getRevision() != cleanRevision;
+    }
+
+    /**
+     * While suspended, the editor doesn't hold the journaled document and no snapshots are taken
+     */
+    void setSuspended(boolean suspended) {
+        this.suspended = suspended;
+    }
+
+    void snapshot() {
+        if (suspended) {
+            return;
+        }
+        FXOMDocument document = editorController.getFxomDocument();
+        int revision = editorController.getJobManager().getRevision();
+        if (document == null || (document == snapshotDocument && revision == snapshotRevision) ||
+                !editorController.canGetFxmlText()) {
+            return;
+        }
+        snapshotDocument = document;
+        snapshotRevision = revision;
+        String fxmlText = editorController.getFxmlText(false);
+        URL location = document.getLocation();
+        pendingWrite = pendingWrite
+                .handle((r, t) -> null)
+                .thenCompose(v -> writer.write(journalFile, fxmlText))
+                .thenRunAsync(() -> writeMetadata(location), SBExecutors.background())
+                .exceptionally(t -> {
+                    LOGGER.log(Level.WARNING, "Error writing recovery journal " + journalFile, t);
+                    return null;
+                });
+    }
+
+    /**
+     * Finds, in the background, the most recent journal in the folder that isn't locked by any
+     * running editor. The journal is claimed until it is discarded.
+     */
+    static CompletableFuture<Optional<Journal>> findOrphanJournal(Path folder) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (!Files.isDirectory(folder)) {
+                return Optional.empty();
+            }
+            List<Path> journals;
+            try (Stream<Path> files = Files.list(folder)) {
+                journals = files.filter(p -> p.getFileName().toString().endsWith(JOURNAL_EXTENSION))
+                        .sorted(Comparator.comparing(AutosaveService::lastModified).reversed())
+                        .toList();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Error listing recovery journals in " + folder, e);
+                return Optional.empty();
+            }
+            for (Path journal : journals) {
+                if (CLAIMED_JOURNALS.add(journal)) {
+                    Optional<Journal> orphan = readOrphan(journal);
+                    if (orphan.isPresent()) {
+                        return orphan;
+                    }
+                    CLAIMED_JOURNALS.remove(journal);
+                }
+            }
+            return Optional.empty();
+        }, SBExecutors.background());
+    }
+
+    private static Optional<Journal> readOrphan(Path journal) {
+        Path lockFile = sibling(journal, LOCK_EXTENSION);
+        synchronized (HELD_LOCKS) {
+            if (HELD_LOCKS.contains(lockFile)) {
+                return Optional.empty();
+            }
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock fileLock = channel.tryLock();
+                if (fileLock == null) {
+                    return Optional.empty();
+                }
+                fileLock.release();
+            } catch (OverlappingFileLockException e) {
+                // locked by an editor of this process
+                return Optional.empty();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Error checking recovery journal " + journal, e);
+                return Optional.empty();
+            }
+        }
+        try {
+            String fxmlText = Files.readString(journal, StandardCharsets.UTF_8);
+            URL location = null;
+            Path metadata = sibling(journal, METADATA_EXTENSION);
+            if (Files.exists(metadata)) {
+                Properties properties = new Properties();
+                try (InputStream is = Files.newInputStream(metadata)) {
+                    properties.load(is);
+                }
+                String value = properties.getProperty(LOCATION_KEY);
+                if (value != null && !value.isEmpty()) {
+                    location = URI.create(value).toURL();
+                }
+            }
+            return Optional.of(new Journal(journal, fxmlText, location));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Error reading recovery journal " + journal, e);
+            return Optional.empty();
+        }
+    }
+
+    private void writeMetadata(URL location) {
+        Properties properties = new Properties();
+        properties.setProperty(LOCATION_KEY, location == null ? "" : location.toExternalForm());
+        try {
+            AtomicFiles.write(sibling(journalFile, METADATA_EXTENSION), path -> {
+                try (OutputStream os = Files.newOutputStream(path)) {
+                    properties.store(os, null);
+                }
+            });
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error writing recovery metadata for " + journalFile, e);
+        }
+    }
+
+    private synchronized void lock() {
+        if (!running || lock != null) {
+            return;
+        }
+        Path lockFile = sibling(journalFile, LOCK_EXTENSION);
+        synchronized (HELD_LOCKS) {
+            HELD_LOCKS.add(lockFile);
+            try {
+                Files.createDirectories(folder);
+                lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                lock = lockChannel.tryLock();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Error locking recovery journal " + journalFile, e);
+            }
+        }
+    }
+
+    private synchronized void unlock() {
+        try {
+            if (lock != null) {
+                lock.release();
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+            Files.deleteIfExists(sibling(journalFile, LOCK_EXTENSION));
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Error unlocking recovery journal " + journalFile, e);
+        } finally {
+            lock = null;
+            lockChannel = null;
+            synchronized (HELD_LOCKS) {
+                HELD_LOCKS.remove(sibling(journalFile, LOCK_EXTENSION));
+            }
+        }
+    }
+
+    private static void deleteJournal(Path journal) {
+        try {
+            Files.deleteIfExists(journal);
+            Files.deleteIfExists(sibling(journal, METADATA_EXTENSION));
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Error deleting recovery journal " + journal, e);
+        }
+    }
+
+    private static Path sibling(Path journal, String extension) {
+        String name = journal.getFileName().toString();
+        return journal.resolveSibling(name.substring(0, name.length() - JOURNAL_EXTENSION.length()) + extension);
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import javafx.util.Duration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a run of {@link FXMLBatchProcessor}, with the timing of each file.
+ */
+public final class BatchReport {
+
+    public enum Status {
+        UNCHANGED, REFORMATTED, FAILED
+    }
+
+    /**
+     * The result of a file: the time it took to load it into the editor, to format it back to
+     * FXML text, and to write it (zero if it wasn't written). The error is null unless the file failed.
+     */
+    public record FileResult(Path file, Status status, Duration load, Duration format, Duration write, String error) {}
+
+    private final List<FileResult> results;
+    private final Duration elapsedTime;
+    private final int threads;
+
+    BatchReport(List<FileResult> results, Duration elapsedTime, int threads) {
+        this.results = List.copyOf(results);
+        this.elapsedTime = elapsedTime;
+        this.threads = threads;
+    }
+
+    /**
+     * @return the results, in the same order as the files were given
+     */
+    public List<FileResult> getResults() {
+        return results;
+    }
+
+    public Duration getElapsedTime() {
+        return elapsedTime;
+    }
+
+    public long getCount(Status status) {
+        return results.stream().filter(r -> r.status() == status).count();
+    }
+
+    public List<FileResult> getFailures() {
+        return results.stream().filter(r -> r.status() == Status.FAILED).toList();
+    }
+
+    /**
+     * Writes the results as CSV, with the durations in milliseconds.
+     */
+    public void writeCsv(Path path) throws IOException {
+        List<String> lines = new ArrayList<>(results.size() + 1);
+        lines.add("file,status,load_ms,format_ms,write_ms,error");
+        for (FileResult r : results) {
+            lines.add(String.join(",", csv(r.file().toString()), r.status().name(),
+                    millis(r.load()), millis(r.format()), millis(r.write()),
+                    r.error() == null ? "" : csv(r.error())));
+        }
+        AtomicFiles.write(path, p -> Files.write(p, lines, StandardCharsets.UTF_8));
+    }
+
+    public String summary() {
+        double total = results.stream().mapToDouble(r -> r.load().add(r.format()).add(r.write()).toMillis()).sum();
+        return String.format("%d files in %.1f ms with %d threads: %d reformatted, %d unchanged, %d failed (%.2f ms per file)",
+                results.size(), elapsedTime.toMillis(), threads, getCount(Status.REFORMATTED),
+                getCount(Status.UNCHANGED), getCount(Status.FAILED), results.isEmpty() ? 0 : total / results.size());
+    }
+
+    private static String millis(Duration duration) {
+        return String.format("%.3f", duration.toMillis());
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
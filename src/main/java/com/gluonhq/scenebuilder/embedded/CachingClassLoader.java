@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class loader that remembers, across documents, the classes resolved by its parent and also the
+ * names that couldn't be resolved, as every wildcard import makes FXMLLoader try a class name
+ * in several packages. Classes that exist but fail to link are not remembered, and the error is
+ * thrown each time. Resources are still looked up in the parent.
+ */
+final class CachingClassLoader extends ClassLoader {
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    private static final Object NOT_FOUND = new Object();
+
+    private final ConcurrentHashMap<String, Object> classes = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+
+    CachingClassLoader(ClassLoader parent) {
+        super("sb-caching", parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        Object cached = classes.get(name);
+        if (cached == null) {
+            try {
+                cached = getParent().loadClass(name);
+            } catch (ClassNotFoundException e) {
+                cached = NOT_FOUND;
+            }
+            classes.putIfAbsent(name, cached);
+        } else {
+            hits.increment();
+        }
+        if (cached instanceof Class<?> type) {
+            return type;
+        }
+        throw new ClassNotFoundException(name);
+    }
+
+    /**
+     * Loads the given class, or returns null if it can't be found
+     */
+    Class<?> loadOrNull(String name) {
+        try {
+            return loadClass(name, false);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    int getCachedCount() {
+        return classes.size();
+    }
+
+    long getHitCount() {
+        return hits.sum();
+    }
+}
@@ -0,0 +1,514 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import javafx.scene.Node;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Index of the classes contained in jars, with their superclass and access flags, used to find
+ * out which jars can contain custom components without loading any of their classes.
+ * <p>
+ * The central directory of each jar is read with positional reads, and only the header of
+ * each class file (constant pool, access flags, this and super class) is parsed. The index is
+ * persisted in a compact binary file, and a jar is only indexed again when its size or
+ * modification time change.
+ */
+final class ComponentIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(ComponentIndex.class.getName());
+
+    private static final String INDEX_FILE_NAME = "component-index.bin";
+    private static final int MAGIC = 0x53424349; // SBCI
+    private static final int VERSION = 1;
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+    private static final int EOCD_MIN_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+
+    private static final Map<Path, ComponentIndex> INDEXES = new ConcurrentHashMap<>();
+
+    record ClassInfo(String name, String superName, int accessFlags) {
+
+        boolean isInstantiable() {
+            return (accessFlags & ACC_PUBLIC) != 0 && (accessFlags & (ACC_INTERFACE | ACC_ABSTRACT)) == 0;
+        }
+    }
+
+    record JarInfo(Path jar, long size, long lastModified, List<ClassInfo> classes) {}
+
+    private final Path indexFile;
+    private final Map<Path, JarInfo> jars = new ConcurrentHashMap<>();
+
+    private ComponentIndex(Path indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    static ComponentIndex of(Path folder) {
+        return INDEXES.computeIfAbsent(folder.resolve(INDEX_FILE_NAME).toAbsolutePath(), file -> {
+            ComponentIndex index = new ComponentIndex(file);
+            index.load();
+            return index;
+        });
+    }
+
+    /**
+     * Returns an index that is only kept in memory, for when there is no application data folder
+     */
+    static ComponentIndex inMemory() {
+        return new ComponentIndex(null);
+    }
+
+    /**
+     * Indexes the given jars, skipping those that haven't changed since they were indexed.
+     * @return true if any jar was indexed again
+     */
+    boolean update(Collection<Path> paths) {
+        return paths.parallelStream()
+                .filter(Files::isRegularFile)
+                .map(this::updateJar)
+                .reduce(false, Boolean::logicalOr);
+    }
+
+    /**
+     * Removes the jars that don't exist anymore.
+     * @return true if any jar was removed
+     */
+    boolean prune() {
+        return jars.keySet().removeIf(path -> !Files.isRegularFile(path));
+    }
+
+    JarInfo get(Path jar) {
+        return jars.get(jar.toAbsolutePath());
+    }
+
+    /**
+     * Returns a snapshot of the superclasses of all the indexed classes, to be shared by the
+     * {@link #hasCandidateClasses(Path, LibraryFilter, Hierarchy)} calls of a pre-scan.
+     */
+    Hierarchy hierarchy() {
+        Map<String, String> superclasses = new HashMap<>();
+        for (JarInfo info : jars.values()) {
+            for (ClassInfo classInfo : info.classes()) {
+                superclasses.putIfAbsent(classInfo.name(), classInfo.superName());
+            }
+        }
+        return new Hierarchy(superclasses);
+    }
+
+    /**
+     * Returns true if the jar, which has to be indexed already, contains an instantiable class
+     * accepted by the filter which extends, directly or not, {@code javafx.scene.Node}.
+     */
+    boolean hasCandidateClasses(Path jar, LibraryFilter filter, Hierarchy hierarchy) {
+        JarInfo jarInfo = get(jar);
+        if (jarInfo == null) {
+            return true;
+        }
+        for (ClassInfo classInfo : jarInfo.classes()) {
+            if (classInfo.isInstantiable() && filter.acceptsClass(classInfo.name()) &&
+                    hierarchy.extendsNode(classInfo.superName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the components of the jar, which has to be indexed already, that the filter doesn't
+     * accept: the instantiable classes that extend {@code javafx.scene.Node} from excluded packages.
+     */
+    List<String> excludedComponents(Path jar, LibraryFilter filter, Hierarchy hierarchy) {
+        JarInfo jarInfo = get(jar);
+        if (jarInfo == null) {
+            return List.of();
+        }
+        List<String> excluded = new ArrayList<>();
+        for (ClassInfo classInfo : jarInfo.classes()) {
+            if (classInfo.isInstantiable() && !filter.acceptsClass(classInfo.name()) &&
+                    hierarchy.extendsNode(classInfo.superName())) {
+                excluded.add(classInfo.name());
+            }
+        }
+        return excluded;
+    }
+
+    /**
+     * Superclasses of the indexed classes. Platform classes, which are not indexed, are resolved
+     * with the class loader of this module, and other classes that aren't indexed are assumed to
+     * be nodes, as they might still be. Thread safe.
+     */
+    static final class Hierarchy {
+
+        private final Map<String, String> superclasses;
+        private final Map<String, Boolean> cache = new ConcurrentHashMap<>();
+
+        Hierarchy(Map<String, String> superclasses) {
+            this.superclasses = superclasses;
+        }
+
+        boolean extendsNode(String className) {
+            return extendsNode(className, 0);
+        }
+
+        private boolean extendsNode(String className, int depth) {
+            if (className == null || className.isEmpty()) {
+                return false;
+            }
+            Boolean cached = cache.get(className);
+            if (cached != null) {
+                return cached;
+            }
+            boolean result;
+            if (isPlatformClass(className)) {
+                result = isPlatformNode(className);
+            } else {
+                String superName = superclasses.get(className);
+                result = superName == null || (depth < 64 && extendsNode(superName, depth + 1));
+            }
+            cache.put(className, result);
+            return result;
+        }
+
+        private static boolean isPlatformClass(String className) {
+            return className.startsWith("java.") || className.startsWith("javax.") || className.startsWith("javafx.") ||
+                    className.startsWith("jdk.") || className.startsWith("sun.") || className.startsWith("com.sun.");
+        }
+
+        private static boolean isPlatformNode(String className) {
+            try {
+                return Node.class.isAssignableFrom(Class.forName(className, false, Hierarchy.class.getClassLoader()));
+            } catch (ClassNotFoundException | LinkageError e) {
+                // a JavaFX module not present at runtime, like javafx.web or javafx.swing
+                return className.startsWith("javafx.scene.") || className.startsWith("javafx.embed.");
+            }
+        }
+    }
+
+    synchronized void store() {
+        if (indexFile == null) {
+            return;
+        }
+        List<JarInfo> snapshot = new ArrayList<>(jars.values());
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (JarInfo jarInfo : snapshot) {
+            for (ClassInfo classInfo : jarInfo.classes()) {
+                strings.putIfAbsent(classInfo.name(), strings.size());
+                strings.putIfAbsent(classInfo.superName(), strings.size());
+            }
+        }
+        try {
+            AtomicFiles.write(indexFile, path -> {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeInt(strings.size());
+                    for (String s : strings.keySet()) {
+                        out.writeUTF(s);
+                    }
+                    out.writeInt(snapshot.size());
+                    for (JarInfo jarInfo : snapshot) {
+                        out.writeUTF(jarInfo.jar().toString());
+                        out.writeLong(jarInfo.size());
+                        out.writeLong(jarInfo.lastModified());
+                        out.writeInt(jarInfo.classes().size());
+                        for (ClassInfo classInfo : jarInfo.classes()) {
+                            out.writeInt(strings.get(classInfo.name()));
+                            out.writeInt(strings.get(classInfo.superName()));
+                            out.writeShort(classInfo.accessFlags());
+                        }
+                    }
+                }
+            });
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error writing component index " + indexFile, e);
+        }
+    }
+
+    private void load() {
+        if (indexFile == null || !Files.isRegularFile(indexFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return;
+            }
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+            int jarCount = in.readInt();
+            for (int i = 0; i < jarCount; i++) {
+                Path jar = Path.of(in.readUTF());
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                int classCount = in.readInt();
+                List<ClassInfo> classes = new ArrayList<>(classCount);
+                for (int j = 0; j < classCount; j++) {
+                    classes.add(new ClassInfo(strings[in.readInt()], strings[in.readInt()], in.readUnsignedShort()));
+                }
+                jars.put(jar, new JarInfo(jar, size, lastModified, List.copyOf(classes)));
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.FINE, "Ignoring unreadable component index " + indexFile, e);
+            jars.clear();
+        }
+    }
+
+    private boolean updateJar(Path path) {
+        Path jar = path.toAbsolutePath();
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+            long size = attributes.size();
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            JarInfo current = jars.get(jar);
+            if (current != null && current.size() == size && current.lastModified() == lastModified) {
+                return false;
+            }
+            jars.put(jar, new JarInfo(jar, size, lastModified, List.copyOf(indexJar(jar, size))));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.FINE, "Error indexing " + jar, e);
+            return jars.remove(jar) != null;
+        }
+    }
+
+    static List<ClassInfo> indexJar(Path jar, long size) throws IOException {
+        // positional reads rather than a mapped buffer, which would keep the jar locked on Windows
+        try (FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ)) {
+            List<ClassInfo> classes = readCentralDirectory(channel, size);
+            if (classes != null) {
+                return classes;
+            }
+        }
+        // zip64 and other unusual archives
+        return indexWithZipFile(jar);
+    }
+
+    private static List<ClassInfo> readCentralDirectory(FileChannel channel, long size) throws IOException {
+        if (size < EOCD_MIN_SIZE) {
+            return null;
+        }
+        int tailSize = (int) Math.min(size, EOCD_MIN_SIZE + MAX_COMMENT_SIZE);
+        ByteBuffer tail = read(channel, size - tailSize, tailSize);
+        int eocd = -1;
+        for (int i = tailSize - EOCD_MIN_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == EOCD_SIGNATURE) {
+                eocd = i;
+                break;
+            }
+        }
+        if (eocd < 0) {
+            return null;
+        }
+        int entryCount = Short.toUnsignedInt(tail.getShort(eocd + 10));
+        long cenSize = Integer.toUnsignedLong(tail.getInt(eocd + 12));
+        long cenOffset = Integer.toUnsignedLong(tail.getInt(eocd + 16));
+        if (entryCount == 0xFFFF || cenOffset == 0xFFFFFFFFL || cenOffset + cenSize > size) {
+            return null;
+        }
+        ByteBuffer cen = read(channel, cenOffset, (int) cenSize);
+        List<ClassInfo> classes = new ArrayList<>();
+        Inflater inflater = new Inflater(true);
+        try {
+            int position = 0;
+            for (int i = 0; i < entryCount; i++) {
+                if (cen.getInt(position) != CEN_SIGNATURE) {
+                    return null;
+                }
+                int method = Short.toUnsignedInt(cen.getShort(position + 10));
+                long compressedSize = Integer.toUnsignedLong(cen.getInt(position + 20));
+                long uncompressedSize = Integer.toUnsignedLong(cen.getInt(position + 24));
+                int nameLength = Short.toUnsignedInt(cen.getShort(position + 28));
+                int extraLength = Short.toUnsignedInt(cen.getShort(position + 30));
+                int commentLength = Short.toUnsignedInt(cen.getShort(position + 32));
+                long localOffset = Integer.toUnsignedLong(cen.getInt(position + 42));
+                String name = decode(cen, position + 46, nameLength);
+                position += 46 + nameLength + extraLength + commentLength;
+
+                String className = JarPreScanner.toClassName(name);
+                if (className == null) {
+                    continue;
+                }
+                if (localOffset == 0xFFFFFFFFL || compressedSize == 0xFFFFFFFFL || localOffset + 30 > size) {
+                    return null;
+                }
+                ByteBuffer localHeader = read(channel, localOffset, 30);
+                if (localHeader.getInt(0) != LOC_SIGNATURE) {
+                    return null;
+                }
+                long dataOffset = localOffset + 30 +
+                        Short.toUnsignedInt(localHeader.getShort(26)) + Short.toUnsignedInt(localHeader.getShort(28));
+                if (dataOffset + compressedSize > size) {
+                    return null;
+                }
+                ByteBuffer data = read(channel, dataOffset, (int) compressedSize);
+                ByteBuffer classBytes;
+                if (method == ZipEntry.STORED) {
+                    classBytes = data;
+                } else if (method == ZipEntry.DEFLATED) {
+                    inflater.reset();
+                    inflater.setInput(data);
+                    classBytes = ByteBuffer.allocate((int) uncompressedSize);
+                    while (classBytes.hasRemaining() && !inflater.finished()) {
+                        if (inflater.inflate(classBytes) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                            break;
+                        }
+                    }
+                    classBytes.flip();
+                } else {
+                    continue;
+                }
+                ClassInfo classInfo = readClassHeader(classBytes.order(ByteOrder.BIG_ENDIAN));
+                if (classInfo != null) {
+                    classes.add(classInfo);
+                }
+            }
+        } catch (DataFormatException | IndexOutOfBoundsException e) {
+            throw new IOException("Invalid jar", e);
+        } finally {
+            inflater.end();
+        }
+        return classes;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of jar");
+            }
+        }
+        return buffer.flip().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static List<ClassInfo> indexWithZipFile(Path jar) throws IOException {
+        List<ClassInfo> classes = new ArrayList<>();
+        try (ZipFile zipFile = new ZipFile(jar.toFile())) {
+            var entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (JarPreScanner.toClassName(entry.getName()) == null) {
+                    continue;
+                }
+                try (InputStream is = zipFile.getInputStream(entry)) {
+                    ClassInfo classInfo = readClassHeader(ByteBuffer.wrap(is.readAllBytes()));
+                    if (classInfo != null) {
+                        classes.add(classInfo);
+                    }
+                }
+            }
+        }
+        return classes;
+    }
+
+    static ClassInfo readClassHeader(ByteBuffer buffer) {
+        try {
+            if (buffer.getInt(0) != 0xCAFEBABE) {
+                return null;
+            }
+            int count = Short.toUnsignedInt(buffer.getShort(8));
+            int[] offsets = new int[count];
+            int position = 10;
+            for (int i = 1; i < count; i++) {
+                offsets[i] = position;
+                int tag = buffer.get(position);
+                position += switch (tag) {
+                    case 1 -> 3 + Short.toUnsignedInt(buffer.getShort(position + 1)); // Utf8
+                    case 7, 8, 16, 19, 20 -> 3; // Class, String, MethodType, Module, Package
+                    case 15 -> 4; // MethodHandle
+                    case 3, 4, 9, 10, 11, 12, 17, 18 -> 5;
+                    case 5, 6 -> 9; // Long, Double
+                    default -> throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+                };
+                if (tag == 5 || tag == 6) {
+                    i++;
+                }
+            }
+            int accessFlags = Short.toUnsignedInt(buffer.getShort(position));
+            String name = className(buffer, offsets, Short.toUnsignedInt(buffer.getShort(position + 2)));
+            String superName = className(buffer, offsets, Short.toUnsignedInt(buffer.getShort(position + 4)));
+            return name == null ? null : new ClassInfo(name, superName == null ? "" : superName, accessFlags);
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String className(ByteBuffer buffer, int[] offsets, int classIndex) {
+        if (classIndex == 0) {
+            return null;
+        }
+        int utf8 = offsets[Short.toUnsignedInt(buffer.getShort(offsets[classIndex] + 1))];
+        int length = Short.toUnsignedInt(buffer.getShort(utf8 + 1));
+        return decode(buffer, utf8 + 3, length).replace('/', '.');
+    }
+
+    private static String decode(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.editor.EditorController;
+import com.oracle.javafx.scenebuilder.kit.editor.panel.content.ContentPanelController;
+import com.oracle.javafx.scenebuilder.kit.fxom.FXOMDocument;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.scene.CacheHint;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.effect.Effect;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.util.Duration;
+import javafx.util.Subscription;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Throttles the updates of the content panel caused by the inspector of a {@link SceneBuilderPane}.
+ * <p>
+ * The changes made to the document while handling an input event of the inspector are applied in
+ * one go before the next pulse, so that the content is refreshed once per frame, however many
+ * properties changed. While a control of the inspector, like a slider, is dragged, the
+ * intermediate values are only applied every {@link #getDragRefreshInterval()}, and the last one
+ * when the drag ends. Optionally, the content is rendered at a reduced fidelity during the drag:
+ * without effects, and cached as a bitmap.
+ * <p>
+ * The throttle is disabled unless it is enabled with {@link SceneBuilderPane.Builder#throttleContentUpdates(boolean)}
+ * or {@link #setEnabled(boolean)}.
+ */
+public final class ContentUpdateThrottle {
+
+    static final Duration DEFAULT_DRAG_REFRESH_INTERVAL = Duration.millis(100);
+
+    private final EditorController editorController;
+    private final ContentPanelController contentPanelController;
+    private final EventHandler<Event> inputFilter = this::inputEvent;
+    private final Runnable pulseListener = this::pulse;
+    private final Map<Node, Effect> hiddenEffects = new IdentityHashMap<>();
+
+    private boolean enabled;
+    private boolean reducedFidelity;
+    private Duration dragRefreshInterval = DEFAULT_DRAG_REFRESH_INTERVAL;
+    private Node inspectorView;
+    private Scene pulseScene;
+    private Subscription sceneSubscription = Subscription.EMPTY;
+    private Subscription documentSubscription = Subscription.EMPTY;
+    private FXOMDocument batchDocument;
+    private long lastRefresh;
+    private boolean pressed;
+    private boolean dragging;
+    private boolean pending;
+    private boolean cachedContent;
+    private CacheHint contentCacheHint;
+    private Object reducedRoot;
+
+    ContentUpdateThrottle(EditorController editorController, ContentPanelController contentPanelController) {
+        this.editorController = editorController;
+        this.contentPanelController = contentPanelController;
+    }
+
+    /**
+     * Enables or disables the coalescing of the updates. When disabled, every change is applied
+     * to the content right away. Disabled by default.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            endBatch();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets the minimum time between two refreshes of the content while a control of the inspector
+     * is dragged. With {@code Duration.ZERO}, the content is refreshed once per pulse.
+     */
+    public void setDragRefreshInterval(Duration interval) {
+        this.dragRefreshInterval = Objects.requireNonNull(interval);
+    }
+
+    public Duration getDragRefreshInterval() {
+        return dragRefreshInterval;
+    }
+
+    /**
+     * Renders the content without effects, and cached, while a control of the inspector is
+     * dragged. Disabled by default.
+     */
+    public void setReducedFidelity(boolean reducedFidelity) {
+        this.reducedFidelity = reducedFidelity;
+        if (!reducedFidelity) {
+            restoreFidelity();
+        }
+    }
+
+    public boolean isReducedFidelity() {
+        return reducedFidelity;
+    }
+
+    /**
+     * @return true while a control of the inspector is dragged
+     */
+    public boolean isDragging() {
+        return dragging;
+    }
+
+    void install(Node inspectorView) {
+        this.inspectorView = inspectorView;
+        inspectorView.addEventFilter(MouseEvent.ANY, inputFilter);
+        inspectorView.addEventFilter(KeyEvent.KEY_PRESSED, inputFilter);
+        inspectorView.addEventFilter(ScrollEvent.SCROLL, inputFilter);
+        // listening to every pulse, as the listeners can't be removed while the pulse notifies them
+        sceneSubscription = inspectorView.sceneProperty().subscribe(scene -> {
+            endBatch();
+            if (pulseScene != null) {
+                pulseScene.removePreLayoutPulseListener(pulseListener);
+            }
+            pulseScene = scene;
+            if (scene != null) {
+                scene.addPreLayoutPulseListener(pulseListener);
+            }
+        });
+        // a batch belongs to the document it began with
+        documentSubscription = editorController.fxomDocumentProperty().subscribe(document -> endBatch());
+    }
+
+    void dispose() {
+        if (inspectorView != null) {
+            inspectorView.removeEventFilter(MouseEvent.ANY, inputFilter);
+            inspectorView.removeEventFilter(KeyEvent.KEY_PRESSED, inputFilter);
+            inspectorView.removeEventFilter(ScrollEvent.SCROLL, inputFilter);
+            inspectorView = null;
+        }
+        pressed = false;
+        dragging = false;
+        endBatch();
+        sceneSubscription.unsubscribe();
+        documentSubscription.unsubscribe();
+        if (pulseScene != null) {
+            pulseScene.removePreLayoutPulseListener(pulseListener);
+            pulseScene = null;
+        }
+    }
+
+    private void inputEvent(Event event) {
+        if (event.getEventType() == MouseEvent.MOUSE_PRESSED) {
+            pressed = true;
+        } else if (event.getEventType() == MouseEvent.MOUSE_DRAGGED) {
+            dragging = pressed;
+        } else if (event.getEventType() == MouseEvent.MOUSE_RELEASED) {
+            pressed = false;
+            dragging = false;
+        } else if (event instanceof MouseEvent) {
+            // moves, enters and exits don't edit the document
+            return;
+        }
+        if (enabled) {
+            beginBatch();
+        }
+    }
+
+    private void beginBatch() {
+        if (batchDocument == null) {
+            FXOMDocument document = editorController.getFxomDocument();
+            if (pulseScene == null || document == null) {
+                return;
+            }
+            document.beginUpdate();
+            batchDocument = document;
+        }
+        pending = true;
+        Platform.requestNextPulse();
+    }
+
+    /**
+     * Called before the layout of each pulse, applies the changes of the open batch
+     */
+    private void pulse() {
+        if (batchDocument == null) {
+            return;
+        }
+        if (!dragging) {
+            endBatch();
+            return;
+        }
+        if (reducedFidelity && contentCacheHint == null) {
+            reduceFidelity();
+        }
+        if (!pending) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - lastRefresh >= (long) (dragRefreshInterval.toMillis() * 1_000_000)) {
+            lastRefresh = now;
+            pending = false;
+            batchDocument.endUpdate();
+            batchDocument.beginUpdate();
+            if (reducedFidelity && batchDocument.getSceneGraphRoot() != reducedRoot) {
+                // the refresh has rebuilt the scene graph
+                reduceFidelity();
+            }
+        } else {
+            // keeps pulsing until the pending changes are applied, even if the pointer stops
+            Platform.requestNextPulse();
+        }
+    }
+
+    private void endBatch() {
+        restoreFidelity();
+        pending = false;
+        if (batchDocument != null) {
+            FXOMDocument document = batchDocument;
+            batchDocument = null;
+            document.endUpdate();
+        }
+    }
+
+    private void reduceFidelity() {
+        if (contentCacheHint == null) {
+            Node content = contentPanelController.getContentGroup();
+            contentCacheHint = content.getCacheHint();
+            cachedContent = !content.isCache();
+            content.setCache(true);
+            content.setCacheHint(CacheHint.SPEED);
+        }
+        reducedRoot = batchDocument == null ? null : batchDocument.getSceneGraphRoot();
+        if (reducedRoot instanceof Node root) {
+            hideEffects(root);
+        }
+    }
+
+    private void hideEffects(Node node) {
+        if (node.getEffect() != null) {
+            hiddenEffects.put(node, node.getEffect());
+            node.setEffect(null);
+        }
+        if (node instanceof Parent parent) {
+            for (Node child : parent.getChildrenUnmodifiable()) {
+                hideEffects(child);
+            }
+        }
+    }
+
+    private void restoreFidelity() {
+        hiddenEffects.forEach((node, effect) -> {
+            if (node.getEffect() == null) {
+                node.setEffect(effect);
+            }
+        });
+        hiddenEffects.clear();
+        reducedRoot = null;
+        if (contentCacheHint != null) {
+            Node content = contentPanelController.getContentGroup();
+            if (cachedContent) {
+                content.setCache(false);
+            }
+            content.setCacheHint(contentCacheHint);
+            contentCacheHint = null;
+            cachedContent = false;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Applies the text of a search field to a panel once typing pauses. The latest text is always
+ * applied, unless it is the one the panel already has, as the panel filters its items itself,
+ * also when they change.
+ */
+final class DebouncedSearch {
+
+    static final Duration DEFAULT_DELAY = Duration.millis(150);
+
+    private final Consumer<String> applyPattern;
+    private final PauseTransition pause = new PauseTransition(DEFAULT_DELAY);
+
+    private String pendingPattern = "";
+    private String appliedPattern = "";
+
+    DebouncedSearch(Consumer<String> applyPattern) {
+        this.applyPattern = Objects.requireNonNull(applyPattern);
+        pause.setOnFinished(e -> update());
+    }
+
+    void setDelay(Duration delay) {
+        pause.setDuration(Objects.requireNonNull(delay));
+    }
+
+    /**
+     * Called on each change of the search text
+     */
+    void search(String pattern) {
+        pendingPattern = pattern == null ? "" : pattern;
+        if (pendingPattern.isEmpty() || pause.getDuration().lessThanOrEqualTo(Duration.ZERO)) {
+            // clearing the search is applied right away
+            update();
+        } else {
+            pause.playFromStart();
+        }
+    }
+
+    void dispose() {
+        pause.stop();
+    }
+
+    private void update() {
+        pause.stop();
+        if (!pendingPattern.equals(appliedPattern)) {
+            appliedPattern = pendingPattern;
+            applyPattern.accept(appliedPattern);
+        }
+    }
+}
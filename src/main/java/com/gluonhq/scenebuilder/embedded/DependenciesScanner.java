@@ -48,6 +48,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class DependenciesScanner {
 
@@ -60,13 +62,17 @@ public class DependenciesScanner {
         }
     }
 
-    private static List<Entry<ModuleReference, ModuleLayer>> findModuleRefs(Class<?>[] callStack) {
+    private static Deque<ModuleLayer> findLayers(Class<?>[] callStack) {
         Deque<ModuleLayer> layerOrder = new ArrayDeque<>();
         Set<ModuleLayer> visited = new HashSet<>();
         for (Class<?> aClass : callStack) {
             ModuleLayer layer = aClass.getModule().getLayer();
             findLayerOrder(layer, visited, layerOrder);
         }
+        return layerOrder;
+    }
+
+    private static List<Entry<ModuleReference, ModuleLayer>> findModuleRefs(Deque<ModuleLayer> layerOrder) {
         Set<ModuleReference> addedModules = new HashSet<>();
         List<Entry<ModuleReference, ModuleLayer>> moduleRefs = new ArrayList<>();
         for (ModuleLayer layer : layerOrder) {
@@ -112,8 +118,28 @@ public class DependenciesScanner {
         if (callStack == null) {
             return List.of();
         }
+        return scan(findLayers(callStack));
+    }
+
+    /**
+     * Same as {@link #scan()}, but only the call stack is captured in the calling thread,
+     * while the module layers are scanned with the given executor.
+     */
+    public static CompletableFuture<List<Path>> scanAsync(Executor executor) {
+        Class<?>[] callStack = getCallStack();
+        if (callStack == null) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        return CompletableFuture.supplyAsync(() -> scan(findLayers(callStack)), executor);
+    }
+
+    static List<Path> scan(Deque<ModuleLayer> layerOrder) {
+        return findPaths(layerOrder);
+    }
+
+    private static List<Path> findPaths(Deque<ModuleLayer> layerOrder) {
         List<Entry<ModuleReference, ModuleLayer>> nonSystemModuleRefs = new ArrayList<>();
-        for (Entry<ModuleReference, ModuleLayer> m : findModuleRefs(callStack)) {
+        for (Entry<ModuleReference, ModuleLayer> m : findModuleRefs(layerOrder)) {
             if (!isSystemModule(m.getKey())) {
                 nonSystemModuleRefs.add(m);
             }
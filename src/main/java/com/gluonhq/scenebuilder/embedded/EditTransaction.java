@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.editor.EditorController;
+import com.oracle.javafx.scenebuilder.kit.editor.Selection;
+import com.oracle.javafx.scenebuilder.kit.fxom.FXOMDocument;
+import javafx.application.Platform;
+
+/**
+ * A group of edits made programmatically to the document of a {@link SceneBuilderPane}, started
+ * with {@link SceneBuilderPane#beginTransaction()}:
+ * <pre>{@code
+ * try (EditTransaction transaction = sceneBuilderPane.beginTransaction()) {
+ *     FXOMDocument document = transaction.getFxomDocument();
+ *     // edit the document or use transaction.getEditorController()
+ *     transaction.commit();
+ * }
+ * }</pre>
+ * Until the transaction ends, the panels are not refreshed and selection changes are not
+ * notified. Once committed, the edits made through the jobs of the editor are undone in a single
+ * step, keeping the previous edits undoable. If the document was only edited directly, it is
+ * undone by restoring its text, and the edits made before the transaction can then only be undone
+ * all at once. A transaction closed without being committed is rolled back.
+ */
+public final class EditTransaction implements AutoCloseable {
+
+    private final SceneBuilderPane pane;
+    private final EditorController editorController;
+    private final FXOMDocument document;
+    private final Selection selection;
+    private final String originalText;
+    private boolean active = true;
+
+    EditTransaction(SceneBuilderPane pane) {
+        this.pane = pane;
+        this.editorController = pane.getEditorController();
+        this.originalText = editorController.canGetFxmlText() ? editorController.getFxmlText(false) : null;
+        pane.getUndoHistory().beginTransaction();
+        this.document = editorController.getFxomDocument();
+        this.selection = editorController.getSelection();
+        if (document != null) {
+            document.beginUpdate();
+        }
+        selection.beginUpdate();
+    }
+
+    public EditorController getEditorController() {
+        return editorController;
+    }
+
+    /**
+     * @return the document being edited, or null if the pane has no document
+     */
+    public FXOMDocument getFxomDocument() {
+        return document;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Ends the transaction, refreshing the panels once, and records its edits as a single undo step
+     */
+    public void commit() {
+        end(true);
+    }
+
+    /**
+     * Ends the transaction, restoring the document as it was when it began
+     *
+     * @throws IllegalStateException if the document was edited and its text wasn't available when
+     * the transaction began, so it can't be restored
+     */
+    public void rollback() {
+        end(false);
+    }
+
+    /**
+     * Rolls back the transaction, unless it was committed
+     */
+    @Override
+    public void close() {
+        if (active) {
+            rollback();
+        }
+    }
+
+    private void end(boolean commit) {
+        if (!Platform.isFxApplicationThread()) {
+            throw new IllegalStateException("Not on FX application thread");
+        }
+        if (!active) {
+            throw new IllegalStateException("The transaction has already ended");
+        }
+        active = false;
+        endUpdate();
+        pane.getUndoHistory().endTransaction(commit, originalText);
+    }
+
+    /**
+     * Ends the transaction when the pane is disposed, keeping its edits
+     */
+    void abandon() {
+        if (active) {
+            active = false;
+            endUpdate();
+            pane.getUndoHistory().endTransaction(true, originalText);
+        }
+    }
+
+    private void endUpdate() {
+        try {
+            selection.endUpdate();
+            if (document != null) {
+                document.endUpdate();
+            }
+        } finally {
+            pane.endTransaction(this);
+        }
+    }
+}
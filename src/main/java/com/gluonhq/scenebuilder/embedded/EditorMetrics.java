@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.editor.EditorController;
+import com.oracle.javafx.scenebuilder.kit.fxom.FXOMDocument;
+import com.oracle.javafx.scenebuilder.kit.fxom.FXOMObject;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters and duration histograms of the {@link EditorAction}s performed in a {@link SceneBuilderPane}.
+ * Each action is also recorded as a {@code com.gluonhq.scenebuilder.EditorAction} JFR event, with the
+ * selection and document sizes.
+ * <p>
+ * Percentiles are approximated by histogram buckets, with an error below 13%.
+ */
+public final class EditorMetrics {
+
+    public record ActionSummary(EditorAction action, long count, Duration mean,
+                                Duration p50, Duration p90, Duration p99, Duration max) {}
+
+    private final Map<EditorAction, Histogram> histograms = new EnumMap<>(EditorAction.class);
+
+    EditorMetrics() {
+        for (EditorAction action : EditorAction.values()) {
+            histograms.put(action, new Histogram());
+        }
+    }
+
+    public long getCount(EditorAction action) {
+        return histograms.get(action).count.sum();
+    }
+
+    /**
+     * Returns the duration below which the given percentage, from 0 to 100, of the actions completed
+     */
+    public Duration getPercentile(EditorAction action, double percentile) {
+        return toDuration(histograms.get(action).percentile(percentile));
+    }
+
+    public ActionSummary getSummary(EditorAction action) {
+        Histogram histogram = histograms.get(action);
+        long count = histogram.count.sum();
+        return new ActionSummary(action, count,
+                toDuration(count == 0 ? 0 : histogram.total.sum() / count),
+                toDuration(histogram.percentile(50)),
+                toDuration(histogram.percentile(90)),
+                toDuration(histogram.percentile(99)),
+                toDuration(histogram.max.get()));
+    }
+
+    /**
+     * Returns the summaries of the actions that have been performed at least once
+     */
+    public List<ActionSummary> getSummaries() {
+        List<ActionSummary> summaries = new ArrayList<>();
+        for (EditorAction action : EditorAction.values()) {
+            if (getCount(action) > 0) {
+                summaries.add(getSummary(action));
+            }
+        }
+        return summaries;
+    }
+
+    public void reset() {
+        histograms.values().forEach(Histogram::reset);
+    }
+
+    /**
+     * Returns a printable table of the action summaries, suitable for logging
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder(String.format("%-12s %8s %10s %10s %10s %10s %10s%n",
+                "action", "count", "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (ActionSummary s : getSummaries()) {
+            sb.append(String.format("%-12s %8d %10.2f %10.2f %10.2f %10.2f %10.2f%n", s.action(), s.count(),
+                    s.mean().toMillis(), s.p50().toMillis(), s.p90().toMillis(), s.p99().toMillis(), s.max().toMillis()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return summary();
+    }
+
+    /**
+     * Starts tracing an action, which is recorded when the returned trace is closed, unless it
+     * was aborted first. The document size is only asked for when a JFR event is committed.
+     */
+    Trace start(EditorAction action, EditorController editorController, IntSupplier documentSize) {
+        return new Trace(action, editorController, documentSize);
+    }
+
+    private static Duration toDuration(long nanos) {
+        return Duration.millis(nanos / 1_000_000.0);
+    }
+
+    static int documentSize(FXOMDocument document) {
+        return document == null || document.getFxomRoot() == null ? 0 : countObjects(document.getFxomRoot());
+    }
+
+    private static int countObjects(FXOMObject object) {
+        int count = 1;
+        for (FXOMObject child : object.getChildObjects()) {
+            count += countObjects(child);
+        }
+        return count;
+    }
+
+    final class Trace implements AutoCloseable {
+
+        private final EditorAction action;
+        private final IntSupplier documentSize;
+        private final EditorActionEvent event = new EditorActionEvent();
+        private final long start;
+        private long end;
+        private boolean ended;
+
+        private Trace(EditorAction action, EditorController editorController, IntSupplier documentSize) {
+            this.action = action;
+            this.documentSize = documentSize;
+            if (event.isEnabled()) {
+                event.selectionSize = editorController.getSelectedObjects().size();
+            }
+            event.begin();
+            start = System.nanoTime();
+        }
+
+        /**
+         * Stops the clock of an action that ends in a background thread. The trace is still
+         * recorded when it is closed, in the JavaFX Application Thread.
+         */
+        void stop() {
+            if (end == 0) {
+                end = System.nanoTime();
+                event.end();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            stop();
+            histograms.get(action).record(end - start);
+            if (event.shouldCommit()) {
+                event.action = action.name();
+                event.documentSize = documentSize.getAsInt();
+                event.commit();
+            }
+        }
+
+        /**
+         * Ends the trace without recording it, for actions that failed or were cancelled
+         */
+        void abort() {
+            ended = true;
+        }
+    }
+
+    /**
+     * Log-linear histogram of nanoseconds: each power of two is split in 8 buckets
+     */
+    static final class Histogram {
+
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets.incrementAndGet(index(value));
+            count.increment();
+            total.add(value);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.reset();
+            total.reset();
+            max.set(0);
+        }
+
+        long percentile(double percentile) {
+            long count = this.count.sum();
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100.0));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        static int index(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int shift = exponent - SUB_BUCKET_BITS;
+            int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+            return (shift + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        static long upperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = index / SUB_BUCKETS - 1;
+            long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+            return ((subBucket + 1) << shift) - 1;
+        }
+    }
+}
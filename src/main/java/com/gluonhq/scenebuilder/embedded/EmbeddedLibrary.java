@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.library.BuiltinLibrary;
+import com.oracle.javafx.scenebuilder.kit.library.Library;
+import com.oracle.javafx.scenebuilder.kit.library.LibraryItem;
+import com.oracle.javafx.scenebuilder.kit.library.util.JarReport;
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.util.Duration;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The library set in the editor. It starts with the builtin items, and then mirrors the items of a
+ * source library, typically a {@code UserLibrary}. Changes from the source, and its jar reports,
+ * are coalesced within a configurable delay, and only the items that were actually added or
+ * removed are applied, so that a burst of jar updates results in a single library refresh.
+ * Custom items get a preview of the component as icon, once {@link LibraryThumbnails} renders it.
+ */
+final class EmbeddedLibrary extends Library {
+
+    static final Duration DEFAULT_UPDATE_DELAY = Duration.millis(500);
+
+    private final PauseTransition updateTransition = new PauseTransition(DEFAULT_UPDATE_DELAY);
+    private final ObservableList<JarReport> jarReports = FXCollections.observableArrayList();
+    private final ObservableList<JarReport> unmodifiableJarReports = FXCollections.unmodifiableObservableList(jarReports);
+    private final ListChangeListener<LibraryItem> sourceItemsListener = c -> scheduleUpdate();
+    private final ChangeListener<ClassLoader> classLoaderListener = (obs, ov, nv) -> setSourceClassLoader(nv);
+    private final LibraryThumbnails thumbnails = new LibraryThumbnails(
+            Path.of(AppData.getUserLibraryFolder(), LibraryThumbnails.FOLDER_NAME), this::getClassLoader, this::scheduleRefresh);
+
+    private Library source;
+    private List<JarReport> pendingJarReports;
+    private Consumer<List<JarReport>> onJarReportsChanged = reports -> {};
+
+    EmbeddedLibrary() {
+        getItems().addAll(BuiltinLibrary.getLibrary().getItems());
+        updateTransition.setOnFinished(e -> update());
+    }
+
+    @Override
+    public Comparator<String> getSectionComparator() {
+        return (s1, s2) -> (source != null ? source : BuiltinLibrary.getLibrary()).getSectionComparator().compare(s1, s2);
+    }
+
+    void setSource(Library source) {
+        if (this.source != null) {
+            this.source.getItems().removeListener(sourceItemsListener);
+            this.source.classLoaderProperty().removeListener(classLoaderListener);
+        }
+        this.source = source;
+        if (source != null) {
+            source.getItems().addListener(sourceItemsListener);
+            source.classLoaderProperty().addListener(classLoaderListener);
+            setSourceClassLoader(source.getClassLoader());
+        }
+        update();
+    }
+
+    /**
+     * Stops following the source and drops pending updates
+     */
+    void dispose() {
+        setSource(null);
+        updateTransition.stop();
+        thumbnails.dispose();
+        pendingJarReports = null;
+        onJarReportsChanged = reports -> {};
+    }
+
+    /**
+     * The documents (and every pasted fragment) are loaded with the class loader of the library,
+     * and FXMLLoader looks each element up in every imported package, so the lookups, including
+     * the failed ones, are cached for as long as the source class loader doesn't change.
+     */
+    private void setSourceClassLoader(ClassLoader classLoader) {
+        setClassLoader(classLoader == null ? null : new CachingClassLoader(classLoader));
+    }
+
+    Library getSource() {
+        return source;
+    }
+
+    void setUpdateDelay(Duration delay) {
+        updateTransition.setDuration(Objects.requireNonNull(delay));
+    }
+
+    Duration getUpdateDelay() {
+        return updateTransition.getDuration();
+    }
+
+    ObservableList<JarReport> getJarReports() {
+        return unmodifiableJarReports;
+    }
+
+    /**
+     * Sets the consumer notified with the jar reports that were added or replaced in the last update.
+     */
+    void setOnJarReportsChanged(Consumer<List<JarReport>> onJarReportsChanged) {
+        this.onJarReportsChanged = Objects.requireNonNull(onJarReportsChanged);
+    }
+
+    /**
+     * Can be called from any thread, typically from the user library explorer
+     */
+    void updateJarReports(List<JarReport> reports) {
+        List<JarReport> copy = List.copyOf(reports);
+        runOnFXThread(() -> {
+            pendingJarReports = copy;
+            scheduleUpdate();
+        });
+    }
+
+    private void scheduleUpdate() {
+        runOnFXThread(updateTransition::playFromStart);
+    }
+
+    /**
+     * Unlike {@link #scheduleUpdate()}, doesn't postpone a pending update, so that while thumbnails
+     * are being rendered they are applied at most once per update delay.
+     */
+    private void scheduleRefresh() {
+        runOnFXThread(() -> {
+            if (updateTransition.getStatus() != Animation.Status.RUNNING) {
+                updateTransition.playFromStart();
+            }
+        });
+    }
+
+    private void update() {
+        updateTransition.stop();
+        if (source != null) {
+            updateItems(source.getItems());
+        }
+        if (pendingJarReports != null) {
+            List<JarReport> reports = pendingJarReports;
+            pendingJarReports = null;
+            updateJarReports0(reports);
+        }
+    }
+
+    private void updateItems(List<LibraryItem> sourceItems) {
+        Map<String, LibraryItem> newItems = new LinkedHashMap<>();
+        for (LibraryItem item : sourceItems) {
+            newItems.computeIfAbsent(key(item), k -> thumbnails.decorate(item));
+        }
+        List<LibraryItem> removed = new ArrayList<>();
+        Set<String> currentKeys = new HashSet<>();
+        for (LibraryItem item : getItems()) {
+            String key = key(item);
+            LibraryItem newItem = newItems.get(key);
+            // items are also replaced when their thumbnail has been rendered
+            if (newItem == null || !iconURL(newItem).equals(iconURL(item)) || !currentKeys.add(key)) {
+                removed.add(item);
+            }
+        }
+        List<LibraryItem> added = new ArrayList<>();
+        newItems.forEach((key, item) -> {
+            if (!currentKeys.contains(key)) {
+                added.add(item);
+            }
+        });
+        if (!removed.isEmpty()) {
+            getItems().removeAll(removed);
+        }
+        if (!added.isEmpty()) {
+            getItems().addAll(added);
+        }
+    }
+
+    private void updateJarReports0(List<JarReport> reports) {
+        Map<Path, JarReport> newReports = new LinkedHashMap<>();
+        for (JarReport report : reports) {
+            newReports.put(report.getJar(), report);
+        }
+        boolean removed = jarReports.removeIf(report -> !newReports.containsKey(report.getJar()));
+        Map<Path, Integer> positions = new HashMap<>();
+        for (int i = 0; i < jarReports.size(); i++) {
+            positions.put(jarReports.get(i).getJar(), i);
+        }
+        List<JarReport> changed = new ArrayList<>();
+        List<JarReport> added = new ArrayList<>();
+        for (JarReport report : newReports.values()) {
+            Integer position = positions.get(report.getJar());
+            if (position == null) {
+                added.add(report);
+            } else if (jarReports.get(position) != report) {
+                jarReports.set(position, report);
+                changed.add(report);
+            }
+        }
+        jarReports.addAll(added);
+        changed.addAll(added);
+        if (removed || !changed.isEmpty()) {
+            thumbnails.updateJarReports(List.copyOf(jarReports));
+        }
+        if (!changed.isEmpty()) {
+            onJarReportsChanged.accept(List.copyOf(changed));
+        }
+    }
+
+    private static String key(LibraryItem item) {
+        return item.getSection() + '\u0000' + item.getName() + '\u0000' + item.getFxmlText();
+    }
+
+    private static String iconURL(LibraryItem item) {
+        // URL::equals would resolve the host
+        return item.getIconURL() == null ? "" : item.getIconURL().toExternalForm();
+    }
+
+    private static void runOnFXThread(Runnable runnable) {
+        if (Platform.isFxApplicationThread()) {
+            runnable.run();
+        } else {
+            Platform.runLater(runnable);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.editor.EditorController;
+import javafx.util.Duration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Normalizes FXML files without any window: each file is loaded into an {@link EditorController},
+ * in the same way {@link SBController} opens it, and the FXML text the editor would save is written
+ * back if it differs from the original one.
+ * <p>
+ * Files are read and written by a bounded number of worker threads, while they are loaded and
+ * formatted one at a time by a single editor in the JavaFX Application Thread, as the kit is not
+ * thread safe. The JavaFX toolkit is started if needed, so on a machine without a display this has
+ * to run under a virtual display (see the {@code headless} Maven profile).
+ */
+public final class FXMLBatchProcessor {
+
+    private static final Logger LOGGER = Logger.getLogger(FXMLBatchProcessor.class.getName());
+
+    private final int threads;
+    private final boolean dryRun;
+    // only used in the JavaFX Application Thread
+    private EditorController editor;
+
+    private FXMLBatchProcessor(Builder builder) {
+        this.threads = builder.threads;
+        this.dryRun = builder.dryRun;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the FXML files under the given files or folders, sorted by path
+     */
+    public static List<Path> findFXMLFiles(List<Path> paths) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path path : paths) {
+            try (Stream<Path> stream = Files.walk(path)) {
+                stream.filter(p -> Files.isRegularFile(p) && p.getFileName().toString().endsWith(".fxml"))
+                        .sorted()
+                        .forEach(files::add);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Processes the files, blocking until all of them are done. A file that can't be loaded or
+     * written is reported as failed and doesn't stop the others.
+     *
+     * @throws IllegalStateException if called from the JavaFX Application Thread, where the files
+     * are loaded
+     */
+    public BatchReport process(List<Path> files) throws InterruptedException {
+        HeadlessToolkit.checkNotFxThread();
+        HeadlessToolkit.start();
+        long start = System.nanoTime();
+        List<Callable<BatchReport.FileResult>> tasks = new ArrayList<>(files.size());
+        for (Path file : files) {
+            tasks.add(() -> process(file));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("sb-batch-", 0).daemon().factory());
+        try {
+            List<BatchReport.FileResult> results = new ArrayList<>(files.size());
+            for (Future<BatchReport.FileResult> future : executor.invokeAll(tasks)) {
+                results.add(future.resultNow());
+            }
+            return new BatchReport(results, elapsed(start, System.nanoTime()), threads);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BatchReport.FileResult process(Path file) {
+        long start = System.nanoTime();
+        long loaded = start;
+        long formatted = start;
+        try {
+            String fxmlText = Files.readString(file, StandardCharsets.UTF_8);
+            Formatted result = HeadlessToolkit.callOnFxThread(() -> loadAndFormat(file, fxmlText));
+            loaded = result.loadedNanos();
+            formatted = System.nanoTime();
+            if (result.fxmlText().equals(fxmlText)) {
+                return result(file, BatchReport.Status.UNCHANGED, start, loaded, formatted, formatted, null);
+            }
+            if (!dryRun) {
+                AtomicFiles.write(file, p -> Files.writeString(p, result.fxmlText(), StandardCharsets.UTF_8));
+            }
+            return result(file, BatchReport.Status.REFORMATTED, start, loaded, formatted, System.nanoTime(), null);
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Exception | Error e) {
+            // errors like NoClassDefFoundError only fail this file
+            LOGGER.log(Level.FINE, "Error processing " + file, e);
+            long end = System.nanoTime();
+            return result(file, BatchReport.Status.FAILED, start, loaded == start ? end : loaded, end, end,
+                    e.getMessage() == null ? e.getClass().getName() : e.getMessage());
+        }
+    }
+
+    private record Formatted(String fxmlText, long loadedNanos) {}
+
+    private Formatted loadAndFormat(Path file, String fxmlText) throws IOException {
+        if (editor == null) {
+            editor = new EditorController();
+        }
+        editor.setFxmlTextAndLocation(fxmlText, file.toUri().toURL());
+        long loaded = System.nanoTime();
+        return new Formatted(editor.getFxmlText(true), loaded);
+    }
+
+    private static BatchReport.FileResult result(Path file, BatchReport.Status status, long start,
+                                                 long loaded, long formatted, long written, String error) {
+        return new BatchReport.FileResult(file, status, elapsed(start, loaded), elapsed(loaded, formatted),
+                elapsed(formatted, written), error);
+    }
+
+    private static Duration elapsed(long from, long to) {
+        return Duration.millis((to - from) / 1_000_000d);
+    }
+
+    public static final class Builder {
+
+        private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        private boolean dryRun;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the number of worker threads that read and write the files. By default, half of the
+         * available processors.
+         */
+        public Builder threads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("threads must be positive: " + threads);
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * If set, files are loaded and formatted, but never written.
+         */
+        public Builder dryRun(boolean dryRun) {
+            this.dryRun = dryRun;
+            return this;
+        }
+
+        public FXMLBatchProcessor build() {
+            return new FXMLBatchProcessor(this);
+        }
+    }
+}
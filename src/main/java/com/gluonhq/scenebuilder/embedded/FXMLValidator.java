@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.fxom.FXOMDocument;
+import javafx.fxml.FXML;
+import javafx.util.Duration;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Checks that FXML files still load against the current dependencies, without an editor.
+ * <p>
+ * A single class loader is built from the paths found by {@link DependenciesScanner#scan()} (or
+ * the given ones), and shared by all the documents. Each document is first parsed, in parallel, to
+ * report unresolved classes, references to undefined fx:ids, controller fields without a matching
+ * fx:id and missing included files, and if none of these prevents it, it is then loaded into an
+ * {@link FXOMDocument}, one at a time in the JavaFX Application Thread as the kit is not thread safe.
+ */
+public final class FXMLValidator implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(FXMLValidator.class.getName());
+
+    private static final String FX_NAMESPACE_PREFIX = "http://javafx.com/fxml";
+    private static final Set<String> PREDEFINED_IDS = Set.of("location", "resources", "controller");
+    private static final XMLInputFactory XML_INPUT_FACTORY;
+    static {
+        XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    }
+
+    private final int threads;
+    private final URLClassLoader pathsClassLoader;
+    private final CachingClassLoader classLoader;
+
+    private FXMLValidator(Builder builder) {
+        this.threads = builder.threads;
+        List<Path> paths = builder.paths != null ? builder.paths : DependenciesScanner.scan();
+        List<URL> urls = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            try {
+                urls.add(path.toUri().toURL());
+            } catch (MalformedURLException e) {
+                LOGGER.log(Level.WARNING, "Ignoring path " + path, e);
+            }
+        }
+        this.pathsClassLoader = new URLClassLoader("sb-validation-paths", urls.toArray(URL[]::new),
+                FXMLValidator.class.getClassLoader());
+        this.classLoader = new CachingClassLoader(pathsClassLoader);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Validates the files, blocking until all of them are done.
+     *
+     * @throws IllegalStateException if called from the JavaFX Application Thread, where the files
+     * are loaded
+     */
+    public ValidationReport validate(List<Path> files) throws InterruptedException {
+        HeadlessToolkit.checkNotFxThread();
+        HeadlessToolkit.start();
+        long start = System.nanoTime();
+        List<Callable<List<ValidationReport.Issue>>> tasks = new ArrayList<>(files.size());
+        for (Path file : files) {
+            tasks.add(() -> validate(file, true));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("sb-validation-", 0).daemon().factory());
+        try {
+            List<ValidationReport.Issue> issues = new ArrayList<>();
+            for (Future<List<ValidationReport.Issue>> future : executor.invokeAll(tasks)) {
+                issues.addAll(future.resultNow());
+            }
+            return new ValidationReport(files.size(), issues, Duration.millis((System.nanoTime() - start) / 1_000_000d),
+                    classLoader.getCachedCount(), classLoader.getHitCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        pathsClassLoader.close();
+    }
+
+    /**
+     * Reports the issues of the file that can be found without loading it into an {@link FXOMDocument}.
+     */
+    List<ValidationReport.Issue> check(Path file) {
+        return validate(file, false);
+    }
+
+    private List<ValidationReport.Issue> validate(Path file, boolean load) {
+        Checker checker = new Checker(file);
+        String fxmlText;
+        try {
+            fxmlText = Files.readString(file, StandardCharsets.UTF_8);
+            checker.check(fxmlText);
+        } catch (IOException e) {
+            checker.add(0, ValidationReport.Kind.LOAD_ERROR, e.getMessage(), true);
+            return checker.issues;
+        } catch (XMLStreamException e) {
+            int line = e.getLocation() == null ? 0 : e.getLocation().getLineNumber();
+            checker.add(line, ValidationReport.Kind.LOAD_ERROR, e.getMessage(), true);
+            return checker.issues;
+        } catch (RuntimeException | LinkageError e) {
+            LOGGER.log(Level.FINE, "Error checking " + file, e);
+            checker.add(0, ValidationReport.Kind.LOAD_ERROR, message(e), true);
+            return checker.issues;
+        }
+        if (load && !checker.fatal) {
+            try {
+                URL location = file.toUri().toURL();
+                boolean loaded = HeadlessToolkit.callOnFxThread(
+                        () -> new FXOMDocument(fxmlText, location, classLoader, null).getFxomRoot() != null);
+                if (!loaded) {
+                    checker.add(0, ValidationReport.Kind.LOAD_ERROR, "The document has no root", true);
+                }
+            } catch (Exception | LinkageError e) {
+                LOGGER.log(Level.FINE, "Error loading " + file, e);
+                Throwable cause = e;
+                while (cause.getCause() != null) {
+                    cause = cause.getCause();
+                }
+                checker.add(0, ValidationReport.Kind.LOAD_ERROR, message(cause), true);
+            }
+        }
+        return checker.issues;
+    }
+
+    private static String message(Throwable t) {
+        return t.getMessage() == null ? t.getClass().getName() : t.getMessage();
+    }
+
+    private final class Checker {
+
+        private final Path file;
+        private final List<ValidationReport.Issue> issues = new ArrayList<>();
+        private final List<String> imports = new ArrayList<>(List.of("java.lang.*"));
+        private final Set<String> unresolved = new HashSet<>();
+        private final Set<String> ids = new HashSet<>(PREDEFINED_IDS);
+        private final Map<String, Integer> references = new LinkedHashMap<>();
+        private String controller;
+        private int controllerLine;
+        private boolean fatal;
+
+        private Checker(Path file) {
+            this.file = file;
+        }
+
+        private void check(String fxmlText) throws XMLStreamException {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(fxmlText));
+            try {
+                while (reader.hasNext()) {
+                    switch (reader.next()) {
+                        case XMLStreamConstants.PROCESSING_INSTRUCTION -> {
+                            if ("import".equals(reader.getPITarget()) && reader.getPIData() != null) {
+                                imports.add(reader.getPIData().trim());
+                            }
+                        }
+                        case XMLStreamConstants.START_ELEMENT -> checkElement(reader);
+                        default -> {}
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+            references.forEach((id, line) -> {
+                if (!ids.contains(id)) {
+                    add(line, ValidationReport.Kind.MISSING_FX_ID, "fx:id '" + id + "' is referenced but not defined", true);
+                }
+            });
+            if (controller != null) {
+                checkController();
+            }
+        }
+
+        private void checkElement(XMLStreamReader reader) {
+            int line = reader.getLocation().getLineNumber();
+            String name = reader.getLocalName();
+            if (isFxNamespace(reader.getNamespaceURI())) {
+                switch (name) {
+                    case "root" -> resolve(reader.getAttributeValue(null, "type"), line);
+                    case "include" -> checkInclude(reader.getAttributeValue(null, "source"), line);
+                    case "reference", "copy" -> reference(reader.getAttributeValue(null, "source"), line);
+                    default -> {}
+                }
+            } else if (isClassName(name)) {
+                resolve(name, line);
+            } else if (name.indexOf('.') > 0) {
+                // static property, like GridPane.rowIndex
+                resolve(name.substring(0, name.lastIndexOf('.')), line);
+            }
+
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                String attribute = reader.getAttributeLocalName(i);
+                String value = reader.getAttributeValue(i);
+                if (isFxNamespace(reader.getAttributeNamespace(i))) {
+                    if ("id".equals(attribute)) {
+                        ids.add(value);
+                    } else if ("controller".equals(attribute)) {
+                        controller = value;
+                        controllerLine = line;
+                    }
+                } else {
+                    if (attribute.indexOf('.') > 0) {
+                        resolve(attribute.substring(0, attribute.lastIndexOf('.')), line);
+                    }
+                    if (value.startsWith("$") && !value.startsWith("$$")) {
+                        // $id or ${id.property}
+                        String expression = value.startsWith("${") ? value.substring(2) : value.substring(1);
+                        int end = 0;
+                        while (end < expression.length() && Character.isJavaIdentifierPart(expression.charAt(end))) {
+                            end++;
+                        }
+                        reference(expression.substring(0, end), line);
+                    }
+                }
+            }
+        }
+
+        private void checkInclude(String source, int line) {
+            if (source == null || source.isEmpty()) {
+                add(line, ValidationReport.Kind.BROKEN_INCLUDE, "fx:include without source", true);
+                return;
+            }
+            boolean found = source.startsWith("/") ?
+                    classLoader.getResource(source.substring(1)) != null :
+                    Files.isRegularFile(file.resolveSibling(source));
+            if (!found) {
+                add(line, ValidationReport.Kind.BROKEN_INCLUDE, "Included file '" + source + "' not found", true);
+            }
+        }
+
+        private void checkController() {
+            try {
+                Class<?> type = resolveQualified(controller);
+                if (type == null) {
+                    add(controllerLine, ValidationReport.Kind.UNRESOLVED_CLASS,
+                            "Controller class '" + controller + "' not found", false);
+                    return;
+                }
+                for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        if (field.isAnnotationPresent(FXML.class) && !ids.contains(field.getName())) {
+                            add(controllerLine, ValidationReport.Kind.MISSING_FX_ID,
+                                    "Controller field " + c.getSimpleName() + "." + field.getName() + " has no matching fx:id",
+                                    false);
+                        }
+                    }
+                }
+            } catch (LinkageError e) {
+                // the controller, or the type of one of its fields, depends on a missing class
+                add(controllerLine, ValidationReport.Kind.UNRESOLVED_CLASS,
+                        "Controller class '" + controller + "' can't be loaded: " + message(e), false);
+            }
+        }
+
+        private void reference(String id, int line) {
+            if (id != null && !id.isEmpty()) {
+                references.putIfAbsent(id, line);
+            }
+        }
+
+        private void resolve(String name, int line) {
+            if (name == null || name.isEmpty() || unresolved.contains(name)) {
+                return;
+            }
+            Class<?> type;
+            try {
+                type = Character.isLowerCase(name.charAt(0)) ? resolveQualified(name) : resolveImported(name);
+            } catch (LinkageError e) {
+                unresolved.add(name);
+                add(line, ValidationReport.Kind.UNRESOLVED_CLASS, "Class '" + name + "' can't be loaded: " + message(e), true);
+                return;
+            }
+            if (type == null) {
+                unresolved.add(name);
+                add(line, ValidationReport.Kind.UNRESOLVED_CLASS, "Class '" + name + "' not found", true);
+            }
+        }
+
+        private Class<?> resolveImported(String name) {
+            // Outer.Inner is resolved through the import of Outer
+            int dot = name.indexOf('.');
+            String head = dot < 0 ? name : name.substring(0, dot);
+            String tail = dot < 0 ? "" : name.substring(dot);
+            for (String imported : imports) {
+                String candidate;
+                if (imported.endsWith(".*")) {
+                    candidate = imported.substring(0, imported.length() - 1) + head;
+                } else if (imported.equals(head) || imported.endsWith("." + head)) {
+                    candidate = imported;
+                } else {
+                    continue;
+                }
+                Class<?> type = resolveQualified(candidate + tail);
+                if (type != null) {
+                    return type;
+                }
+            }
+            return null;
+        }
+
+        private Class<?> resolveQualified(String name) {
+            // nested classes: a.b.Outer.Inner is a.b.Outer$Inner
+            String candidate = name;
+            while (true) {
+                Class<?> type = classLoader.loadOrNull(candidate);
+                if (type != null) {
+                    return type;
+                }
+                int dot = candidate.lastIndexOf('.');
+                if (dot < 0 || !Character.isUpperCase(candidate.charAt(candidate.lastIndexOf('.', dot - 1) + 1))) {
+                    return null;
+                }
+                candidate = candidate.substring(0, dot) + '$' + candidate.substring(dot + 1);
+            }
+        }
+
+        private void add(int line, ValidationReport.Kind kind, String detail, boolean fatal) {
+            issues.add(new ValidationReport.Issue(file, line, kind, detail));
+            this.fatal |= fatal;
+        }
+    }
+
+    private static boolean isFxNamespace(String namespace) {
+        return namespace != null && namespace.startsWith(FX_NAMESPACE_PREFIX);
+    }
+
+    private static boolean isClassName(String name) {
+        // a.b.Button and Button are classes, while text and GridPane.rowIndex are properties
+        int dot = name.lastIndexOf('.');
+        return Character.isUpperCase(name.charAt(dot + 1));
+    }
+
+    public static final class Builder {
+
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private List<Path> paths;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the number of worker threads. By default, the number of available processors.
+         */
+        public Builder threads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("threads must be positive: " + threads);
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Sets the jars and folders the classes are loaded from, in addition to the application
+         * ones. By default, those found by {@link DependenciesScanner#scan()}.
+         */
+        public Builder paths(List<Path> paths) {
+            this.paths = List.copyOf(paths);
+            return this;
+        }
+
+        public FXMLValidator build() {
+            return new FXMLValidator(this);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Writes FXML text in the background. Writes are queued so they happen in order, each one goes
+ * to a temporary file which is then atomically moved over the target, and a write is skipped when
+ * the content is the same as in the last write to the same file, and the file hasn't been changed
+ * since, as far as its size and modification time tell.
+ */
+final class FXMLWriter {
+
+    private final Executor executor;
+    private CompletableFuture<Boolean> lastWrite = CompletableFuture.completedFuture(false);
+    private Path lastPath;
+    private byte[] lastDigest;
+    private BasicFileAttributes lastAttributes;
+
+    FXMLWriter(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return a future that completes with false if the write was skipped, or true otherwise
+     */
+    synchronized CompletableFuture<Boolean> write(Path path, String fxmlText) {
+        lastWrite = lastWrite
+                .handle((result, throwable) -> null)
+                .thenApplyAsync(v -> {
+                    try {
+                        return doWrite(path, fxmlText);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor);
+        return lastWrite;
+    }
+
+    private boolean doWrite(Path path, String fxmlText) throws IOException {
+        byte[] bytes = fxmlText.getBytes(StandardCharsets.UTF_8);
+        byte[] digest = digest(bytes);
+        Path target = path.toAbsolutePath();
+        synchronized (this) {
+            if (target.equals(lastPath) && Arrays.equals(digest, lastDigest) && isUnchanged(target, lastAttributes)) {
+                return false;
+            }
+        }
+        AtomicFiles.write(target, tmp -> {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+        });
+        BasicFileAttributes attributes = Files.readAttributes(target, BasicFileAttributes.class);
+        synchronized (this) {
+            lastPath = target;
+            lastDigest = digest;
+            lastAttributes = attributes;
+        }
+        return true;
+    }
+
+    // the file might have been changed or deleted by another program since it was written
+    private static boolean isUnchanged(Path target, BasicFileAttributes written) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(target, BasicFileAttributes.class);
+            return attributes.size() == written.size() &&
+                    attributes.lastModifiedTime().equals(written.lastModifiedTime());
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private static byte[] digest(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available in every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.editor.EditorController;
+import com.oracle.javafx.scenebuilder.kit.fxom.FXOMDocument;
+import com.oracle.javafx.scenebuilder.kit.fxom.FXOMObject;
+import javafx.application.Platform;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the objects of the document that have an fx:id, so that finding the fx:ids within a
+ * large selection only checks the ancestors of those objects instead of walking every selected
+ * subtree. Small selections, and any selection while the index is not valid, are walked.
+ * <p>
+ * The index is valid for a document and a revision of its scene graph. Edits made through
+ * {@link SBController} that remove or insert objects update it in place; any other change (an
+ * edit in the inspector, undo, a new document...) invalidates it. It is then rebuilt after the
+ * next large selection has been walked, in a later pulse, so that walk doesn't also pay for it.
+ */
+final class FxIdIndex {
+
+    // selected subtrees with up to this many objects, or as many as indexed ones, are walked
+    private static final int WALK_LIMIT = 256;
+
+    private final EditorController editorController;
+    private final Map<FXOMObject, String> fxIds = new IdentityHashMap<>();
+    private FXOMDocument document;
+    private int revision = -1;
+
+    FxIdIndex(EditorController editorController) {
+        this.editorController = editorController;
+    }
+
+    /**
+     * @return the objects with an fx:id among the given ones and their descendants, by fx:id
+     */
+    Map<String, FXOMObject> collectFxIds(Collection<FXOMObject> roots) {
+        Map<FXOMObject, String> found;
+        if (isValid()) {
+            found = walk(roots, Math.max(WALK_LIMIT, fxIds.size()));
+            if (found == null) {
+                found = findWithin(roots);
+            }
+        } else {
+            found = walk(roots, WALK_LIMIT);
+            if (found == null) {
+                found = walk(roots, Integer.MAX_VALUE);
+                Platform.runLater(this::refresh);
+            }
+        }
+        Map<String, FXOMObject> result = new HashMap<>();
+        found.forEach((object, fxId) -> result.put(fxId, object));
+        return result;
+    }
+
+    /**
+     * Runs an edit that removes the given objects, such as delete or cut, and drops them and their
+     * descendants from the index.
+     */
+    void remove(List<FXOMObject> roots, Runnable edit) {
+        Map<FXOMObject, String> removed = null;
+        if (isValid()) {
+            removed = walk(roots, Math.max(WALK_LIMIT, fxIds.size()));
+            if (removed == null) {
+                removed = findWithin(roots);
+            }
+        }
+        edit.run();
+        if (removed != null && editorController.getFxomDocument() == document) {
+            removed.keySet().forEach(fxIds::remove);
+            revision = document.getSceneGraphRevision();
+        }
+    }
+
+    /**
+     * Runs an edit that inserts objects and selects them, such as paste or duplicate, and adds
+     * them and their descendants to the index.
+     */
+    void insert(Runnable edit) {
+        boolean valid = isValid();
+        edit.run();
+        if (valid && editorController.getFxomDocument() == document) {
+            if (document.getSceneGraphRevision() != revision) {
+                editorController.getSelectedObjects().forEach(this::addSubtree);
+            }
+            revision = document.getSceneGraphRevision();
+        }
+    }
+
+    private boolean isValid() {
+        return document != null && editorController.getFxomDocument() == document &&
+                document.getSceneGraphRevision() == revision;
+    }
+
+    private void refresh() {
+        if (isValid()) {
+            return;
+        }
+        fxIds.clear();
+        document = editorController.getFxomDocument();
+        revision = document == null ? -1 : document.getSceneGraphRevision();
+        if (document != null && document.getFxomRoot() != null) {
+            addSubtree(document.getFxomRoot());
+        }
+    }
+
+    /**
+     * @return the objects with an fx:id within the given subtrees, or null if they have more objects than the limit
+     */
+    private Map<FXOMObject, String> walk(Collection<FXOMObject> roots, int limit) {
+        Map<FXOMObject, String> result = new IdentityHashMap<>();
+        Deque<FXOMObject> pending = new ArrayDeque<>(roots);
+        int visited = 0;
+        while (!pending.isEmpty()) {
+            if (++visited > limit) {
+                return null;
+            }
+            FXOMObject object = pending.pop();
+            if (object.getFxId() != null) {
+                result.put(object, object.getFxId());
+            }
+            object.getChildObjects().forEach(pending::push);
+        }
+        return result;
+    }
+
+    private Map<FXOMObject, String> findWithin(Collection<FXOMObject> roots) {
+        Set<FXOMObject> rootSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        rootSet.addAll(roots);
+        Map<FXOMObject, String> result = new IdentityHashMap<>();
+        fxIds.forEach((object, fxId) -> {
+            for (FXOMObject o = object; o != null; o = o.getParentObject()) {
+                if (rootSet.contains(o)) {
+                    result.put(object, fxId);
+                    break;
+                }
+            }
+        });
+        return result;
+    }
+
+    private void addSubtree(FXOMObject root) {
+        Deque<FXOMObject> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            FXOMObject object = pending.pop();
+            if (object.getFxId() != null) {
+                fxIds.put(object, object.getFxId());
+            }
+            object.getChildObjects().forEach(pending::push);
+        }
+    }
+}
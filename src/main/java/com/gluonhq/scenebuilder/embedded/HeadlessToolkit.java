@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Helpers to use the JavaFX toolkit from worker threads when no {@link SceneBuilderPane} is shown.
+ */
+final class HeadlessToolkit {
+
+    private HeadlessToolkit() {
+    }
+
+    /**
+     * Starts the JavaFX toolkit, unless it is already running, and waits until it is ready.
+     */
+    static void start() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            Platform.startup(latch::countDown);
+        } catch (IllegalStateException e) {
+            // already running
+            latch.countDown();
+        }
+        latch.await();
+    }
+
+    /**
+     * Throws if called from the JavaFX Application Thread, for methods that block until worker
+     * threads are done with tasks that run in that thread.
+     */
+    static void checkNotFxThread() {
+        if (Platform.isFxApplicationThread()) {
+            throw new IllegalStateException("Can't be called from the JavaFX Application Thread");
+        }
+    }
+
+    /**
+     * Calls the task in the JavaFX Application Thread and waits for its result. The kit keeps state that
+     * is not thread safe, like its metadata and glossary, so FXOM documents and editors are only created
+     * and used in that thread.
+     */
+    static <T> T callOnFxThread(Callable<T> task) throws Exception {
+        if (Platform.isFxApplicationThread()) {
+            return task.call();
+        }
+        FutureTask<T> futureTask = new FutureTask<>(task);
+        Platform.runLater(futureTask);
+        try {
+            return futureTask.get();
+        } catch (ExecutionException ee) {
+            throw ee.getCause() instanceof Exception cause ? cause : ee;
+        }
+    }
+}
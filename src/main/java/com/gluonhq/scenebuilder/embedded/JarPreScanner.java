@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.module.ModuleDescriptor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Properties;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Discards, in parallel, the jars that can't contain custom components before they are handed
+ * to the user library, so that only the remaining ones are opened and introspected class by class.
+ * The classes of each jar are taken from a {@link ComponentIndex}, and the module descriptor,
+ * manifest and Maven properties are only read when the filter has rules for them.
+ */
+final class JarPreScanner {
+
+    private static final Logger LOGGER = Logger.getLogger(JarPreScanner.class.getName());
+
+    private static final String VERSIONS_PREFIX = "META-INF/versions/";
+    private static final String MAVEN_PREFIX = "META-INF/maven/";
+    private static final Pattern ANONYMOUS_CLASS = Pattern.compile(".*\\$\\d.*");
+    private static final Pattern VERSION_SUFFIX = Pattern.compile("-(\\d+(\\.|$)).*");
+    private static final Pattern NON_ALPHANUM = Pattern.compile("[^A-Za-z0-9]+");
+
+    private JarPreScanner() {
+    }
+
+    static List<Path> prescan(List<Path> paths, LibraryFilter filter) {
+        return prescan(paths, filter, ComponentIndex.inMemory());
+    }
+
+    /**
+     * Same as {@link #prescan(List, LibraryFilter)}, with a component index that is updated first,
+     * and that can be persisted, so that only the jars that changed are read again. Only the jars
+     * with classes accepted by the filter that extend a JavaFX node are kept.
+     */
+    static List<Path> prescan(List<Path> paths, LibraryFilter filter, ComponentIndex index) {
+        if (index.update(paths) | index.prune()) {
+            index.store();
+        }
+        ComponentIndex.Hierarchy hierarchy = index.hierarchy();
+        return paths.parallelStream()
+                .filter(path -> isCandidate(path, filter, index, hierarchy))
+                .toList();
+    }
+
+    /**
+     * Returns the components of the prescanned jars that the package rules of the filter exclude,
+     * to be left out of the user library.
+     */
+    static List<String> excludedComponents(List<Path> jars, LibraryFilter filter, ComponentIndex index) {
+        if (!filter.hasPackageRules()) {
+            return List.of();
+        }
+        ComponentIndex.Hierarchy hierarchy = index.hierarchy();
+        return jars.parallelStream()
+                .flatMap(jar -> index.excludedComponents(jar, filter, hierarchy).stream())
+                .toList();
+    }
+
+    static boolean isCandidate(Path path, LibraryFilter filter, ComponentIndex index, ComponentIndex.Hierarchy hierarchy) {
+        if (!Files.isRegularFile(path)) {
+            // exploded modules and class folders are left to the library
+            return true;
+        }
+        boolean indexed = index.get(path) != null;
+        if (indexed) {
+            if (!index.hasCandidateClasses(path, filter, hierarchy)) {
+                return false;
+            }
+            if (!filter.hasJarRules()) {
+                // a jar with nodes can read javafx.graphics
+                return true;
+            }
+        }
+        try (ZipFile zipFile = new ZipFile(path.toFile())) {
+            ModuleDescriptor descriptor = readModuleDescriptor(zipFile);
+            String moduleName = descriptor != null ? descriptor.name() : automaticModuleName(zipFile, path);
+            String coordinates = filter.hasArtifactRules() ? findMavenCoordinates(zipFile, path) : null;
+            if (!filter.acceptsJar(moduleName, coordinates)) {
+                return false;
+            }
+            if (descriptor != null && !canReadJavaFX(descriptor)) {
+                return false;
+            }
+            return indexed || hasCandidateClasses(zipFile, filter);
+        } catch (IOException | RuntimeException e) {
+            // let the library report it
+            LOGGER.log(Level.FINE, "Error pre-scanning " + path, e);
+            return true;
+        }
+    }
+
+    private static ModuleDescriptor readModuleDescriptor(ZipFile zipFile) throws IOException {
+        ZipEntry entry = zipFile.getEntry("module-info.class");
+        if (entry == null) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entry == null && entries.hasMoreElements()) {
+                ZipEntry e = entries.nextElement();
+                if (e.getName().startsWith(VERSIONS_PREFIX) && e.getName().endsWith("/module-info.class")) {
+                    entry = e;
+                }
+            }
+        }
+        if (entry == null) {
+            return null;
+        }
+        try (InputStream is = zipFile.getInputStream(entry)) {
+            return ModuleDescriptor.read(is);
+        }
+    }
+
+    // A module that only requires platform modules can't see javafx.graphics, while
+    // any other module could read it through a transitive dependency.
+    private static boolean canReadJavaFX(ModuleDescriptor descriptor) {
+        for (ModuleDescriptor.Requires requires : descriptor.requires()) {
+            String name = requires.name();
+            if (!name.startsWith("java.") && !name.startsWith("jdk.")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String automaticModuleName(ZipFile zipFile, Path path) throws IOException {
+        ZipEntry entry = zipFile.getEntry("META-INF/MANIFEST.MF");
+        if (entry != null) {
+            try (InputStream is = zipFile.getInputStream(entry)) {
+                String name = new Manifest(is).getMainAttributes().getValue(new Attributes.Name("Automatic-Module-Name"));
+                if (name != null) {
+                    return name;
+                }
+            }
+        }
+        String fileName = path.getFileName().toString();
+        if (fileName.endsWith(".jar")) {
+            fileName = fileName.substring(0, fileName.length() - 4);
+        }
+        fileName = VERSION_SUFFIX.matcher(fileName).replaceFirst("");
+        fileName = NON_ALPHANUM.matcher(fileName).replaceAll(".");
+        return fileName.replaceAll("^\\.|\\.$", "");
+    }
+
+    private static String findMavenCoordinates(ZipFile zipFile, Path path) throws IOException {
+        String coordinates = readMavenCoordinates(zipFile);
+        return coordinates != null ? coordinates : repositoryCoordinates(path);
+    }
+
+    // Jars not built with Maven don't contain pom.properties, but the Maven local repository
+    // (.../repository/group/path/artifact/version/artifact-version.jar) and the Gradle cache
+    // (.../files-2.1/group/artifact/version/hash/artifact-version.jar) layouts still tell them.
+    private static String repositoryCoordinates(Path path) {
+        Path absolutePath = path.toAbsolutePath();
+        int count = absolutePath.getNameCount();
+        String fileName = absolutePath.getFileName().toString();
+        for (int i = count - 2; i >= 2; i--) {
+            String version = absolutePath.getName(i).toString();
+            String artifact = absolutePath.getName(i - 1).toString();
+            if (!fileName.startsWith(artifact + "-" + version)) {
+                continue;
+            }
+            if (i + 2 == count && i - 2 >= 0) {
+                for (int j = i - 2; j >= 0; j--) {
+                    if ("repository".equals(absolutePath.getName(j).toString()) && j < i - 2) {
+                        String group = absolutePath.subpath(j + 1, i - 1).toString()
+                                .replace(absolutePath.getFileSystem().getSeparator(), ".");
+                        return group + ":" + artifact + ":" + version;
+                    }
+                }
+            } else if (i + 3 == count && i >= 3 && "files-2.1".equals(absolutePath.getName(i - 3).toString())) {
+                return absolutePath.getName(i - 2) + ":" + artifact + ":" + version;
+            }
+            return null;
+        }
+        return null;
+    }
+
+    private static String readMavenCoordinates(ZipFile zipFile) throws IOException {
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            String name = entry.getName();
+            if (name.startsWith(MAVEN_PREFIX) && name.endsWith("/pom.properties")) {
+                Properties properties = new Properties();
+                try (InputStream is = zipFile.getInputStream(entry)) {
+                    properties.load(is);
+                }
+                return properties.getProperty("groupId") + ":" + properties.getProperty("artifactId") + ":" +
+                        properties.getProperty("version");
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasCandidateClasses(ZipFile zipFile, LibraryFilter filter) {
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            String className = toClassName(entries.nextElement().getName());
+            if (className != null && filter.acceptsClass(className)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String toClassName(String entryName) {
+        if (!entryName.endsWith(".class") || entryName.endsWith("module-info.class") ||
+                entryName.endsWith("package-info.class")) {
+            return null;
+        }
+        if (entryName.startsWith(VERSIONS_PREFIX)) {
+            int index = entryName.indexOf('/', VERSIONS_PREFIX.length());
+            entryName = entryName.substring(index + 1);
+        } else if (entryName.startsWith("META-INF/")) {
+            return null;
+        }
+        if (ANONYMOUS_CLASS.matcher(entryName).matches()) {
+            return null;
+        }
+        return entryName.substring(0, entryName.length() - ".class".length()).replace('/', '.');
+    }
+}
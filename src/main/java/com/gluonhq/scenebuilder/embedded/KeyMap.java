@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.editor.EditorPlatform;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyCombination.ModifierValue;
+import javafx.scene.input.KeyEvent;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Key bindings of the {@link EditorAction}s of a {@link SceneBuilderPane}.
+ * <p>
+ * Bindings are indexed by key code, so each key event is only matched against the few bindings
+ * of its key, and the index is rebuilt only when bindings are changed.
+ */
+public final class KeyMap {
+
+    public record Binding(KeyCodeCombination combination, EditorAction action) {
+
+        public Binding {
+            Objects.requireNonNull(combination);
+            Objects.requireNonNull(action);
+        }
+    }
+
+    private static final KeyCombination.Modifier MODIFIER =
+            EditorPlatform.IS_MAC ? KeyCombination.META_DOWN : KeyCombination.CONTROL_DOWN;
+
+    private final List<Binding> bindings = new ArrayList<>();
+    private Map<KeyCode, Binding[]> index = Map.of();
+
+    KeyMap() {
+        reset();
+    }
+
+    /**
+     * Binds the key combination to the action, replacing any other binding of the same combination
+     */
+    public void bind(KeyCodeCombination combination, EditorAction action) {
+        bindings.removeIf(b -> b.combination().equals(combination));
+        bindings.add(new Binding(combination, action));
+        updateIndex();
+    }
+
+    public void unbind(KeyCodeCombination combination) {
+        if (bindings.removeIf(b -> b.combination().equals(combination))) {
+            updateIndex();
+        }
+    }
+
+    /**
+     * Removes all the bindings of the action
+     */
+    public void disable(EditorAction action) {
+        if (bindings.removeIf(b -> b.action() == action)) {
+            updateIndex();
+        }
+    }
+
+    public List<Binding> getBindings() {
+        return List.copyOf(bindings);
+    }
+
+    public List<KeyCodeCombination> getBindings(EditorAction action) {
+        return bindings.stream()
+                .filter(b -> b.action() == action)
+                .map(Binding::combination)
+                .toList();
+    }
+
+    /**
+     * Restores the default bindings
+     */
+    public void reset() {
+        bindings.clear();
+        bindings.add(new Binding(new KeyCodeCombination(KeyCode.A, MODIFIER), EditorAction.SELECT_ALL));
+        bindings.add(new Binding(new KeyCodeCombination(KeyCode.A, KeyCombination.SHIFT_DOWN, MODIFIER), EditorAction.SELECT_NONE));
+        bindings.add(new Binding(new KeyCodeCombination(KeyCode.BACK_SPACE, ModifierValue.ANY, ModifierValue.ANY,
+                ModifierValue.ANY, ModifierValue.ANY, ModifierValue.ANY), EditorAction.DELETE));
+        bindings.add(new Binding(new KeyCodeCombination(KeyCode.Z, MODIFIER), EditorAction.UNDO));
+        if (EditorPlatform.IS_MAC) {
+            bindings.add(new Binding(new KeyCodeCombination(KeyCode.Z, KeyCombination.SHIFT_DOWN, MODIFIER), EditorAction.REDO));
+        }
+        bindings.add(new Binding(new KeyCodeCombination(KeyCode.Y, MODIFIER), EditorAction.REDO));
+        bindings.add(new Binding(new KeyCodeCombination(KeyCode.C, MODIFIER), EditorAction.COPY));
+        bindings.add(new Binding(new KeyCodeCombination(KeyCode.X, MODIFIER), EditorAction.CUT));
+        bindings.add(new Binding(new KeyCodeCombination(KeyCode.V, MODIFIER), EditorAction.PASTE));
+        bindings.add(new Binding(new KeyCodeCombination(KeyCode.D, MODIFIER), EditorAction.DUPLICATE));
+        bindings.add(new Binding(new KeyCodeCombination(KeyCode.N, MODIFIER), EditorAction.NEW));
+        bindings.add(new Binding(new KeyCodeCombination(KeyCode.O, MODIFIER), EditorAction.OPEN));
+        bindings.add(new Binding(new KeyCodeCombination(KeyCode.S, MODIFIER), EditorAction.SAVE));
+        updateIndex();
+    }
+
+    /**
+     * Returns the action bound to the key event, or null if there is none
+     */
+    EditorAction find(KeyEvent event) {
+        Binding[] candidates = index.get(event.getCode());
+        if (candidates != null) {
+            for (Binding binding : candidates) {
+                if (binding.combination().match(event)) {
+                    return binding.action();
+                }
+            }
+        }
+        return null;
+    }
+
+    private void updateIndex() {
+        Map<KeyCode, List<Binding>> lists = new EnumMap<>(KeyCode.class);
+        for (Binding binding : bindings) {
+            lists.computeIfAbsent(binding.combination().getCode(), k -> new ArrayList<>()).add(binding);
+        }
+        Map<KeyCode, Binding[]> newIndex = new EnumMap<>(KeyCode.class);
+        lists.forEach((code, list) -> newIndex.put(code, list.toArray(Binding[]::new)));
+        index = newIndex;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Filter applied to the jars found by {@link DependenciesScanner} before they are handed to the
+ * custom library. Jars can be selected by module name and by Maven coordinates
+ * ({@code groupId:artifactId[:version]}), both supporting {@code *} and {@code ?} wildcards, and
+ * the classes taken into account can be restricted by package prefix.
+ * <p>
+ * If no include rule is given, every jar that isn't excluded is accepted.
+ */
+public final class LibraryFilter {
+
+    public static final LibraryFilter ALL = builder().build();
+
+    private final List<Pattern> includedModules;
+    private final List<Pattern> excludedModules;
+    private final List<Pattern> includedArtifacts;
+    private final List<Pattern> excludedArtifacts;
+    private final List<String> includedPackages;
+    private final List<String> excludedPackages;
+
+    private LibraryFilter(Builder builder) {
+        this.includedModules = List.copyOf(builder.includedModules);
+        this.excludedModules = List.copyOf(builder.excludedModules);
+        this.includedArtifacts = List.copyOf(builder.includedArtifacts);
+        this.excludedArtifacts = List.copyOf(builder.excludedArtifacts);
+        this.includedPackages = List.copyOf(builder.includedPackages);
+        this.excludedPackages = List.copyOf(builder.excludedPackages);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    boolean hasJarRules() {
+        return !includedModules.isEmpty() || !excludedModules.isEmpty() || hasArtifactRules();
+    }
+
+    boolean hasPackageRules() {
+        return !includedPackages.isEmpty() || !excludedPackages.isEmpty();
+    }
+
+    boolean hasArtifactRules() {
+        return !includedArtifacts.isEmpty() || !excludedArtifacts.isEmpty();
+    }
+
+    boolean acceptsJar(String moduleName, String coordinates) {
+        if (matchesAny(excludedModules, moduleName) || matchesAny(excludedArtifacts, coordinates)) {
+            return false;
+        }
+        if (includedModules.isEmpty() && includedArtifacts.isEmpty()) {
+            return true;
+        }
+        return matchesAny(includedModules, moduleName) || matchesAny(includedArtifacts, coordinates);
+    }
+
+    boolean acceptsClass(String className) {
+        for (String prefix : excludedPackages) {
+            if (className.startsWith(prefix)) {
+                return false;
+            }
+        }
+        if (includedPackages.isEmpty()) {
+            return true;
+        }
+        for (String prefix : includedPackages) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesAny(List<Pattern> patterns, String value) {
+        if (value == null) {
+            return false;
+        }
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(value).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Pattern glob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (!literal.isEmpty()) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (!literal.isEmpty()) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static Pattern artifactGlob(String coordinates) {
+        // groupId:artifactId matches any version
+        return glob(coordinates.chars().filter(c -> c == ':').count() < 2 ? coordinates + ":*" : coordinates);
+    }
+
+    private static String packagePrefix(String packageName) {
+        return packageName.endsWith(".") ? packageName : packageName + ".";
+    }
+
+    public static final class Builder {
+
+        private final List<Pattern> includedModules = new ArrayList<>();
+        private final List<Pattern> excludedModules = new ArrayList<>();
+        private final List<Pattern> includedArtifacts = new ArrayList<>();
+        private final List<Pattern> excludedArtifacts = new ArrayList<>();
+        private final List<String> includedPackages = new ArrayList<>();
+        private final List<String> excludedPackages = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder includeModules(String... globs) {
+            for (String g : globs) {
+                includedModules.add(glob(g));
+            }
+            return this;
+        }
+
+        public Builder excludeModules(String... globs) {
+            for (String g : globs) {
+                excludedModules.add(glob(g));
+            }
+            return this;
+        }
+
+        public Builder includeArtifacts(String... coordinates) {
+            for (String c : coordinates) {
+                includedArtifacts.add(artifactGlob(c));
+            }
+            return this;
+        }
+
+        public Builder excludeArtifacts(String... coordinates) {
+            for (String c : coordinates) {
+                excludedArtifacts.add(artifactGlob(c));
+            }
+            return this;
+        }
+
+        public Builder includePackages(String... packageNames) {
+            for (String p : packageNames) {
+                includedPackages.add(packagePrefix(p));
+            }
+            return this;
+        }
+
+        public Builder excludePackages(String... packageNames) {
+            for (String p : packageNames) {
+                excludedPackages.add(packagePrefix(p));
+            }
+            return this;
+        }
+
+        public LibraryFilter build() {
+            return new LibraryFilter(this);
+        }
+    }
+}
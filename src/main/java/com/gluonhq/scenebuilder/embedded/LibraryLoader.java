@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.library.Library;
+import com.oracle.javafx.scenebuilder.kit.library.util.JarReport;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads the custom library, from the dependencies of the application and the user library folder,
+ * into an {@link EmbeddedLibrary} that can be shared by several editors. The dependencies are
+ * scanned and the custom library created only once.
+ */
+final class LibraryLoader {
+
+    private static final Logger LOGGER = Logger.getLogger(LibraryLoader.class.getName());
+
+    private final EmbeddedLibrary library = new EmbeddedLibrary();
+    private final CompletableFuture<Library> ready = new CompletableFuture<>();
+    private final ReadOnlyBooleanWrapper loading = new ReadOnlyBooleanWrapper(this, "loading");
+    private volatile LibraryFilter libraryFilter = LibraryFilter.ALL;
+    private UserLibraryRegistry.Handle userLibraryHandle;
+    private boolean started;
+    private boolean disposed;
+
+    EmbeddedLibrary getLibrary() {
+        return library;
+    }
+
+    CompletableFuture<Library> whenReady() {
+        return ready.copy();
+    }
+
+    ReadOnlyBooleanProperty loadingProperty() {
+        return loading.getReadOnlyProperty();
+    }
+
+    void setLibraryFilter(LibraryFilter libraryFilter) {
+        this.libraryFilter = Objects.requireNonNull(libraryFilter);
+    }
+
+    LibraryFilter getLibraryFilter() {
+        return libraryFilter;
+    }
+
+    /**
+     * Starts loading the custom library, if it wasn't started yet. It has to be called from the JavaFX
+     * Application Thread, as the dependencies are scanned from the module layers of its call stack.
+     */
+    void load(StartupProfile startupProfile) {
+        if (started || disposed) {
+            return;
+        }
+        started = true;
+        loading.set(true);
+        StartupProfile.Timer scanTimer = startupProfile.start("dependencyScan");
+        DependenciesScanner.scanAsync(SBExecutors.background())
+                .whenComplete((paths, throwable) -> scanTimer.close())
+                .thenApplyAsync(paths -> startupProfile.measure("createCustomLibrary", () -> createCustomLibrary(paths)),
+                        SBExecutors.background())
+                .whenCompleteAsync((handle, throwable) -> {
+                    loading.set(false);
+                    if (throwable != null) {
+                        LOGGER.log(Level.WARNING, "Error creating custom library", throwable);
+                    } else if (disposed) {
+                        handle.release();
+                    } else {
+                        userLibraryHandle = handle;
+                        startupProfile.measure("setLibrary", () -> library.setSource(handle.getUserLibrary()));
+                    }
+                    ready.complete(library);
+                }, Platform::runLater);
+    }
+
+    /**
+     * Releases the user library, which stops watching if no other editor uses it
+     */
+    void dispose() {
+        if (disposed) {
+            return;
+        }
+        disposed = true;
+        if (userLibraryHandle != null) {
+            userLibraryHandle.release();
+            userLibraryHandle = null;
+        }
+        library.dispose();
+    }
+
+    private UserLibraryRegistry.Handle createCustomLibrary(List<Path> scannedPaths) {
+        Path applicationDataPath = AppData.getApplicationDataPath();
+        ComponentIndex componentIndex = applicationDataPath == null ?
+                ComponentIndex.inMemory() : ComponentIndex.of(applicationDataPath);
+        List<Path> paths = JarPreScanner.prescan(scannedPaths, libraryFilter, componentIndex);
+        List<String> excludedClasses = JarPreScanner.excludedComponents(paths, libraryFilter, componentIndex);
+        if (applicationDataPath != null) {
+            library.setOnJarReportsChanged(jarReports -> {
+                List<Path> jars = jarReports.stream().map(JarReport::getJar).toList();
+                SBExecutors.background().execute(() -> {
+                    if (componentIndex.update(jars)) {
+                        componentIndex.store();
+                    }
+                });
+            });
+        }
+        return UserLibraryRegistry.acquire(AppData.getUserLibraryFolder(), paths, excludedClasses, library::updateJarReports);
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.fxom.FXOMDocument;
+import com.oracle.javafx.scenebuilder.kit.library.LibraryItem;
+import com.oracle.javafx.scenebuilder.kit.library.util.JarReport;
+import com.oracle.javafx.scenebuilder.kit.library.util.JarReportEntry;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.geometry.Bounds;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Transform;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Renders previews of the custom library items, and caches them as PNG files under the user
+ * library folder, in a folder per jar, named after the hash of its path, size and modification
+ * time. Folders of jars that are no longer reported, or have changed, are deleted, by the same
+ * thread that writes the files. The components are instantiated and snapshotted off-screen in the JavaFX Application Thread, as the kit is not
+ * thread safe, in small batches per pulse, so that a large library doesn't block the application.
+ * The library cells only load the files of the items they show. The items that fail to render
+ * are retried when the library is updated.
+ */
+final class LibraryThumbnails {
+
+    private static final Logger LOGGER = Logger.getLogger(LibraryThumbnails.class.getName());
+
+    static final String FOLDER_NAME = ".thumbnails";
+
+    private static final int SIZE = 16;
+    private static final int SNAPSHOTS_PER_PULSE = 8;
+    private static final Pattern IMPORT = Pattern.compile("<\\?import\\s+([\\w.$]+)\\s*\\?>");
+
+    private record Snapshot(LibraryItem item, CompletableFuture<int[][]> pixels) {}
+
+    /**
+     * What the cache key of an item depends on, besides the jars: the classes it imports and the hash of its text
+     */
+    private record ItemKey(List<String> imports, String textHash) {}
+
+    private final Path folder;
+    private final Supplier<ClassLoader> classLoader;
+    private final Runnable onRendered;
+    private final Map<String, Path> jarsByClass = new ConcurrentHashMap<>();
+    private final Map<Path, String> jarHashes = new ConcurrentHashMap<>();
+    // by item text, which doesn't change when items are recreated
+    private final Map<String, ItemKey> itemKeys = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<URL>> thumbnails = new ConcurrentHashMap<>();
+    // hashes the jars, and reads, writes and deletes the files, one task at a time
+    private final ExecutorService files = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("sb-thumbnails").factory());
+    private final Queue<Snapshot> snapshots = new ConcurrentLinkedQueue<>();
+    private final AnimationTimer snapshotTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            takeSnapshots();
+        }
+    };
+    private volatile boolean disposed;
+
+    /**
+     * @param onRendered called, from any thread, when thumbnails become available
+     */
+    LibraryThumbnails(Path folder, Supplier<ClassLoader> classLoader, Runnable onRendered) {
+        this.folder = folder;
+        this.classLoader = classLoader;
+        this.onRendered = onRendered;
+    }
+
+    /**
+     * Hashes, in the background, the path, size and modification time of the jars of the reports,
+     * all the ones of the library, so that the thumbnails of their components can be looked up, and
+     * deletes the thumbnails of the jars that are gone or have changed.
+     */
+    void updateJarReports(List<JarReport> reports) {
+        if (disposed) {
+            return;
+        }
+        files.execute(() -> {
+            Map<Path, String> hashes = new HashMap<>();
+            Map<String, Path> classes = new HashMap<>();
+            for (JarReport report : reports) {
+                try {
+                    hashes.put(report.getJar(), hash(report.getJar()));
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, "Error hashing " + report.getJar(), e);
+                    continue;
+                }
+                for (JarReportEntry entry : report.getEntries()) {
+                    if (entry.getStatus() == JarReportEntry.Status.OK) {
+                        classes.put(entry.getKlassName(), report.getJar());
+                    }
+                }
+            }
+            jarHashes.keySet().retainAll(hashes.keySet());
+            jarHashes.putAll(hashes);
+            jarsByClass.keySet().retainAll(classes.keySet());
+            jarsByClass.putAll(classes);
+            Set<String> current = Set.copyOf(hashes.values());
+            thumbnails.keySet().removeIf(key -> !current.contains(key.substring(0, key.indexOf('/'))));
+            thumbnails.values().removeIf(LibraryThumbnails::hasFailed);
+            evict(current);
+            if (!disposed) {
+                onRendered.run();
+            }
+        });
+    }
+
+    /**
+     * Returns a copy of the item with its thumbnail as icon, if it has been rendered already.
+     * Otherwise, the item itself is returned and the thumbnail is loaded from the cache or
+     * rendered in the background.
+     */
+    LibraryItem decorate(LibraryItem item) {
+        if (jarHashes.isEmpty()) {
+            return item;
+        }
+        String key = cacheKey(item);
+        if (key == null || disposed) {
+            return item;
+        }
+        URL url = thumbnails.computeIfAbsent(key, k -> render(item, k)).getNow(null);
+        return url == null ? item : new LibraryItem(item.getName(), item.getSection(), item.getFxmlText(), url, item.getLibrary());
+    }
+
+    void dispose() {
+        disposed = true;
+        snapshotTimer.stop();
+        files.shutdown();
+        Snapshot snapshot;
+        while ((snapshot = snapshots.poll()) != null) {
+            snapshot.pixels().cancel(false);
+        }
+    }
+
+    private CompletableFuture<URL> render(LibraryItem item, String key) {
+        Path file = folder.resolve(key + ".png");
+        CompletableFuture<URL> future = CompletableFuture.supplyAsync(() -> Files.isRegularFile(file), files)
+                .thenCompose(cached -> cached ? CompletableFuture.completedFuture(null) :
+                        snapshot(item).thenAcceptAsync(pixels -> write(file, pixels), files))
+                .thenApply(v -> toURL(file))
+                .exceptionally(t -> {
+                    LOGGER.log(Level.FINE, "No thumbnail for " + item.getName(), t);
+                    return null;
+                });
+        future.thenRun(() -> {
+            if (!disposed) {
+                onRendered.run();
+            }
+        });
+        return future;
+    }
+
+    // a failed render completes with null
+    private static boolean hasFailed(CompletableFuture<URL> thumbnail) {
+        return thumbnail.isDone() && thumbnail.join() == null;
+    }
+
+    private Node instantiate(LibraryItem item) throws IOException {
+        FXOMDocument document = new FXOMDocument(item.getFxmlText(), null, classLoader.get(), null);
+        if (document.getSceneGraphRoot() instanceof Node node) {
+            return node;
+        }
+        throw new IOException("Not a node: " + document.getSceneGraphRoot());
+    }
+
+    private CompletableFuture<int[][]> snapshot(LibraryItem item) {
+        CompletableFuture<int[][]> pixels = new CompletableFuture<>();
+        snapshots.add(new Snapshot(item, pixels));
+        Platform.runLater(() -> {
+            if (!disposed) {
+                snapshotTimer.start();
+            }
+        });
+        return pixels;
+    }
+
+    private void takeSnapshots() {
+        for (int i = 0; i < SNAPSHOTS_PER_PULSE; i++) {
+            Snapshot snapshot = snapshots.poll();
+            if (snapshot == null) {
+                snapshotTimer.stop();
+                return;
+            }
+            try {
+                Node node = instantiate(snapshot.item());
+                Group group = new Group(node);
+                new Scene(group);
+                group.applyCss();
+                group.layout();
+                Bounds bounds = node.getBoundsInParent();
+                if (bounds.getWidth() <= 0 || bounds.getHeight() <= 0) {
+                    throw new IllegalStateException("Empty bounds: " + bounds);
+                }
+                // the image loader picks the @2x file on HiDPI screens
+                snapshot.pixels().complete(new int[][] {pixels(node, bounds, SIZE), pixels(node, bounds, 2 * SIZE)});
+            } catch (IOException | RuntimeException | LinkageError e) {
+                snapshot.pixels().completeExceptionally(e);
+            }
+        }
+    }
+
+    private static int[] pixels(Node node, Bounds bounds, int size) {
+        double scale = Math.min(1, SIZE / Math.max(bounds.getWidth(), bounds.getHeight())) * size / SIZE;
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        parameters.setTransform(Transform.scale(scale, scale));
+        WritableImage image = node.snapshot(parameters, null);
+        int width = Math.min(size, (int) image.getWidth());
+        int height = Math.min(size, (int) image.getHeight());
+        int[] argb = new int[size * size];
+        int offset = (size - height) / 2 * size + (size - width) / 2;
+        image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), argb, offset, size);
+        return argb;
+    }
+
+    private void write(Path file, int[][] pixels) {
+        Path jarFolder = file.getParent();
+        if (!jarHashes.containsValue(jarFolder.getFileName().toString())) {
+            // the folder of this jar has been evicted while the thumbnail was rendered
+            throw new IllegalStateException("Stale thumbnail: " + file);
+        }
+        try {
+            Files.createDirectories(jarFolder);
+            String name = file.getFileName().toString();
+            Path hiDpiFile = file.resolveSibling(name.replace(".png", "@2x.png"));
+            // the 1x file, which tells the thumbnail is cached, is written last
+            AtomicFiles.write(hiDpiFile, path -> writePng(path, 2 * SIZE, pixels[1]));
+            AtomicFiles.write(file, path -> writePng(path, SIZE, pixels[0]));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writePng(Path file, int size, int[] argb) throws IOException {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, size, size, argb, 0, size);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            if (!ImageIO.write(image, "png", out)) {
+                throw new IOException("No PNG writer");
+            }
+        }
+    }
+
+    private String cacheKey(LibraryItem item) {
+        ItemKey itemKey = itemKeys.computeIfAbsent(item.getFxmlText(), LibraryThumbnails::itemKey);
+        for (String imported : itemKey.imports()) {
+            Path jar = jarsByClass.get(imported);
+            String jarHash = jar == null ? null : jarHashes.get(jar);
+            if (jarHash != null) {
+                return jarHash + "/" + itemKey.textHash();
+            }
+        }
+        return null;
+    }
+
+    private static ItemKey itemKey(String fxmlText) {
+        List<String> imports = new ArrayList<>();
+        Matcher matcher = IMPORT.matcher(fxmlText);
+        while (matcher.find()) {
+            imports.add(matcher.group(1));
+        }
+        return new ItemKey(List.copyOf(imports), hex(digest().digest(fxmlText.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static String hash(Path jar) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+        String identity = jar.toAbsolutePath() + "\u0000" + attributes.size() + "\u0000" +
+                attributes.lastModifiedTime().toMillis();
+        return hex(digest().digest(identity.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Deletes the thumbnail folders of jars other than the given ones
+     */
+    private void evict(Set<String> jarHashes) {
+        if (!Files.isDirectory(folder)) {
+            return;
+        }
+        try (Stream<Path> stream = Files.list(folder)) {
+            for (Path stale : stream.filter(p -> !jarHashes.contains(p.getFileName().toString())).toList()) {
+                try (Stream<Path> files = Files.walk(stale)) {
+                    for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Error deleting stale thumbnails in " + folder, e);
+        }
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] digest) {
+        return HexFormat.of().formatHex(digest, 0, 16);
+    }
+
+    private static URL toURL(Path file) {
+        try {
+            return file.toUri().toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -38,15 +38,13 @@ import com.oracle.javafx.scenebuilder.kit.editor.panel.util.dialog.AlertDialog;
 import com.oracle.javafx.scenebuilder.kit.fxom.FXOMDocument;
 import com.oracle.javafx.scenebuilder.kit.fxom.FXOMNodes;
 import com.oracle.javafx.scenebuilder.kit.fxom.FXOMObject;
+import javafx.application.Platform;
 import javafx.event.EventHandler;
 import javafx.scene.Node;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.MenuButton;
 import javafx.scene.control.TextInputControl;
 import javafx.scene.input.Clipboard;
-import javafx.scene.input.KeyCode;
-import javafx.scene.input.KeyCodeCombination;
-import javafx.scene.input.KeyCombination;
 import javafx.scene.input.KeyEvent;
 import javafx.stage.FileChooser;
 
@@ -55,154 +53,303 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class SBController {
 
-    private static final KeyCombination.Modifier modifier;
-    static {
-        if (EditorPlatform.IS_MAC) {
-            modifier = KeyCombination.META_DOWN;
-        } else {
-            modifier = KeyCombination.CONTROL_DOWN;
-        }
-    }
-    private final ResourceBundle resources = ResourceBundle.getBundle("com.gluonhq.scenebuilder.embedded.sb");
+    private static final Logger LOGGER = Logger.getLogger(SBController.class.getName());
+
 
     private final EventHandler<KeyEvent> mainKeyEventFilter;
 
     private final SceneBuilderPane sbPane;
     private final Node mainPane;
     private final EditorController editorController;
+    private final FXMLWriter fxmlWriter = new FXMLWriter(SBExecutors.background());
+    private final FxIdIndex fxIdIndex;
+    private FXMLLoadTask openTask;
+    private EvictedDocument evictedDocument;
+
+    private record EvictedDocument(String fxmlText, URL location, boolean modified) {}
 
     SBController(SceneBuilderPane sbPane) {
         this.sbPane = sbPane;
         this.mainPane = sbPane.getChildrenUnmodifiable().getFirst();
         this.editorController = sbPane.getEditorController();
+        this.fxIdIndex = new FxIdIndex(editorController);
 
         mainKeyEventFilter = event -> {
-            if (sbPane.getHierarchyPanelController().getPanelControl().isFocused() &&
-                    new KeyCodeCombination(KeyCode.A, modifier).match(event)) {
-                event.consume();
-                if (canPerformSelectAll()) {
-                    performSelectAll();
-                }
+            EditorAction action = sbPane.getKeyMap().find(event);
+            if (action != null) {
+                performAction(action, event);
             }
+        };
 
-            if (sbPane.getHierarchyPanelController().getPanelControl().isFocused() &&
-                    new KeyCodeCombination(KeyCode.A, KeyCombination.SHIFT_DOWN, modifier).match(event)) {
-                event.consume();
-                if (canPerformSelectNone()) {
-                    performSelectNone();
+        sbPane.addEventFilter(KeyEvent.KEY_PRESSED, mainKeyEventFilter);
+    }
+
+    void dispose() {
+        cancelOpenTask();
+        sbPane.removeEventFilter(KeyEvent.KEY_PRESSED, mainKeyEventFilter);
+    }
+
+    private void performAction(EditorAction action, KeyEvent event) {
+        switch (action) {
+            case SELECT_ALL -> {
+                if (sbPane.getHierarchyPanelController().getPanelControl().isFocused()) {
+                    event.consume();
+                    if (canPerformSelectAll()) {
+                        perform(EditorAction.SELECT_ALL, this::performSelectAll);
+                    }
                 }
             }
-
-            final Node focusOwner = mainPane.getScene().getFocusOwner();
-            if (!isTextInputControlEditing(focusOwner) && KeyCode.BACK_SPACE.equals(event.getCode())) {
-                if (canPerformDelete()) {
-                    performDelete();
+            case SELECT_NONE -> {
+                if (sbPane.getHierarchyPanelController().getPanelControl().isFocused()) {
+                    event.consume();
+                    if (canPerformSelectNone()) {
+                        perform(EditorAction.SELECT_NONE, this::performSelectNone);
+                    }
                 }
-                event.consume();
             }
-
-            if (new KeyCodeCombination(KeyCode.Z, modifier).match(event)) {
+            case DELETE -> {
+                final Node focusOwner = mainPane.getScene().getFocusOwner();
+                if (!isTextInputControlEditing(focusOwner)) {
+                    if (canPerformDelete()) {
+                        perform(EditorAction.DELETE, this::performDelete);
+                    }
+                    event.consume();
+                }
+            }
+            case UNDO -> {
                 if (canPerformUndo()) {
-                    performUndo();
+                    perform(EditorAction.UNDO, this::performUndo);
                 }
                 event.consume();
             }
-            
-            if ((EditorPlatform.IS_MAC && new KeyCodeCombination(KeyCode.Z, KeyCombination.SHIFT_DOWN, modifier).match(event)) ||
-                    new KeyCodeCombination(KeyCode.Y, modifier).match(event)) {
+            case REDO -> {
                 if (canPerformRedo()) {
-                    performRedo();
+                    perform(EditorAction.REDO, this::performRedo);
                 }
                 event.consume();
             }
-
-            if (new KeyCodeCombination(KeyCode.C, modifier).match(event)) {
+            case COPY -> {
                 if (canPerformCopy()) {
-                    performCopy();
+                    perform(EditorAction.COPY, this::performCopy);
                 }
                 event.consume();
             }
-            
-            if (new KeyCodeCombination(KeyCode.X, modifier).match(event)) {
+            case CUT -> {
                 if (canPerformCut()) {
-                    performCut();
+                    perform(EditorAction.CUT, this::performCut);
                 }
                 event.consume();
             }
-            
-            if (new KeyCodeCombination(KeyCode.V, modifier).match(event)) {
+            case PASTE -> {
                 if (canPerformPaste()) {
-                    performPaste();
+                    perform(EditorAction.PASTE, this::performPaste);
                 }
                 event.consume();
             }
-
-            if (new KeyCodeCombination(KeyCode.D, modifier).match(event)) {
+            case DUPLICATE -> {
                 if (canPerformDuplicate()) {
-                    performDuplicate();
+                    perform(EditorAction.DUPLICATE, this::performDuplicate);
                 }
                 event.consume();
             }
-
-            if (new KeyCodeCombination(KeyCode.N, modifier).match(event)) {
+            case NEW -> {
                 newFXML();
                 event.consume();
             }
-
-            if (new KeyCodeCombination(KeyCode.O, modifier).match(event)) {
+            case OPEN -> {
                 openFXML();
                 event.consume();
             }
-
-            if (new KeyCodeCombination(KeyCode.S, modifier).match(event)) {
+            case SAVE -> {
                 saveFXML();
                 event.consume();
             }
+        }
+    }
 
-        };
+    private void perform(EditorAction action, Runnable runnable) {
+        try (EditorMetrics.Trace ignored = trace(action)) {
+            runnable.run();
+        }
+    }
 
-        sbPane.addEventFilter(KeyEvent.KEY_PRESSED, mainKeyEventFilter);
+    private EditorMetrics.Trace trace(EditorAction action) {
+        return sbPane.getMetrics().start(action, editorController, sbPane::getDocumentSize);
     }
 
     void newFXML() {
-        try {
+        cancelOpenTask();
+        discardEvictedDocument();
+        try (EditorMetrics.Trace ignored = trace(EditorAction.NEW)) {
             editorController.setFxmlText("", false);
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         }
+        markClean();
+    }
+
+    void recoverFXML(String fxmlText, URL location) {
+        cancelOpenTask();
+        discardEvictedDocument();
+        setDocument(fxmlText, location);
+        sbPane.documentOpened();
+        // the recovered document is not saved yet
+        AutosaveService autosaveService = sbPane.getAutosaveService();
+        if (autosaveService != null) {
+            autosaveService.markDirty();
+        }
     }
 
     void openFXML() {
         FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle(resources.getString("file.dialog.title"));
+        fileChooser.setTitle(SBResources.getString("file.dialog.title"));
         fileChooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter(resources.getString("file.filter.label.fxml"), "*.fxml"));
+                new FileChooser.ExtensionFilter(SBResources.getString("file.filter.label.fxml"), "*.fxml"));
         fileChooser.setInitialDirectory(EditorController.getNextInitialDirectory());
         File file = fileChooser.showOpenDialog(editorController.getOwnerWindow());
         if (file != null) {
+            EditorController.updateNextInitialDirectory(file);
+            openFXML(file.toPath());
+        }
+    }
+
+    CompletableFuture<Void> openFXML(Path path) {
+        cancelOpenTask();
+        EditorMetrics.Trace trace = trace(EditorAction.OPEN);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        FXMLLoadTask task = new FXMLLoadTask(path);
+        task.setOnSucceeded(e -> {
+            openTask = null;
             try {
-                EditorController.updateNextInitialDirectory(file);
-                URL url = file.toURI().toURL();
-                String content = FXOMDocument.readContentFromURL(url);
-                editorController.setFxmlTextAndLocation(content, url);
+                URL url = path.toUri().toURL();
+                editorController.setFxmlTextAndLocation(task.getValue(), url);
+                discardEvictedDocument();
+                trace.close();
+                markClean();
+                sbPane.documentOpened();
+                future.complete(null);
             } catch (IOException ex) {
-                throw new RuntimeException(ex);
+                trace.abort();
+                showOpenFailure(path, ex);
+                future.completeExceptionally(ex);
+            }
+        });
+        task.setOnFailed(e -> {
+            openTask = null;
+            trace.abort();
+            showOpenFailure(path, task.getException());
+            future.completeExceptionally(task.getException());
+        });
+        task.setOnCancelled(e -> {
+            trace.abort();
+            future.cancel(false);
+        });
+        openTask = task;
+        sbPane.showProgress(task);
+        SBExecutors.background().execute(task);
+        return future;
+    }
+
+    boolean isDocumentEvicted() {
+        return evictedDocument != null;
+    }
+
+    /**
+     * Replaces the document with an empty one to release its object tree, keeping its text
+     * so it can be restored later
+     */
+    boolean evictDocument() {
+        if (evictedDocument != null || openTask != null || !editorController.canGetFxmlText()) {
+            return false;
+        }
+        AutosaveService autosaveService = sbPane.getAutosaveService();
+        boolean modified = autosaveService != null && autosaveService.isModified();
+        if (autosaveService != null) {
+            autosaveService.snapshot();
+            autosaveService.setSuspended(true);
+        }
+        evictedDocument = new EvictedDocument(editorController.getFxmlText(true),
+                editorController.getFxmlLocation(), modified);
+        setDocument("", null);
+        return true;
+    }
+
+    void restoreDocument() {
+        if (evictedDocument == null) {
+            return;
+        }
+        EvictedDocument document = evictedDocument;
+        evictedDocument = null;
+        setDocument(document.fxmlText(), document.location());
+        AutosaveService autosaveService = sbPane.getAutosaveService();
+        if (autosaveService != null) {
+            autosaveService.setSuspended(false);
+            if (document.modified()) {
+                autosaveService.markDirty();
+            } else {
+                autosaveService.markClean();
+            }
+        }
+    }
+
+    private void discardEvictedDocument() {
+        if (evictedDocument != null) {
+            evictedDocument = null;
+            AutosaveService autosaveService = sbPane.getAutosaveService();
+            if (autosaveService != null) {
+                autosaveService.setSuspended(false);
             }
         }
     }
 
+    private void setDocument(String fxmlText, URL location) {
+        try {
+            if (location != null) {
+                editorController.setFxmlTextAndLocation(fxmlText, location);
+            } else {
+                editorController.setFxmlText(fxmlText, false);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private void markClean() {
+        AutosaveService autosaveService = sbPane.getAutosaveService();
+        if (autosaveService != null) {
+            autosaveService.markClean();
+        }
+    }
+
+    private void cancelOpenTask() {
+        if (openTask != null) {
+            openTask.cancel();
+            openTask = null;
+        }
+    }
+
+    private void showOpenFailure(Path path, Throwable throwable) {
+        LOGGER.log(Level.WARNING, "Error opening " + path, throwable);
+        if (editorController.getOwnerWindow() != null) {
+            final AlertDialog d = new AlertDialog(editorController.getOwnerWindow());
+            d.setMessage(SBResources.getString("alert.open.failure.message"));
+            d.setDetails(throwable == null ? path.toString() : throwable.getMessage());
+            d.showAndWait();
+        }
+    }
+
     void saveFXML() {
+        restoreDocument();
         if (editorController.canGetFxmlText()) {
             final FileChooser fileChooser = new FileChooser();
             final FileChooser.ExtensionFilter f = new FileChooser.ExtensionFilter("FXML Document", "*.fxml"); //NOI18N
@@ -227,17 +374,55 @@ public class SBController {
                     // Should not happen
                     throw new RuntimeException("Error", e);
                 }
-                try {
-                    final byte[] fxmlBytes = editorController.getFxmlText(true).getBytes(StandardCharsets.UTF_8);
-                    Files.write(fxmlPath, fxmlBytes);
-                } catch (Exception e) {
-                    throw new RuntimeException("Error", e);
-                }
-
+                writeFXML(fxmlPath);
             }
         }
     }
 
+    CompletableFuture<Boolean> saveFXML(Path fxmlPath) {
+        restoreDocument();
+        if (!editorController.canGetFxmlText()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        try {
+            editorController.setFxmlLocation(fxmlPath.toUri().toURL());
+        } catch (MalformedURLException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return writeFXML(fxmlPath);
+    }
+
+    private CompletableFuture<Boolean> writeFXML(Path fxmlPath) {
+        // the text is taken in the JavaFX Application Thread, encoding and writing happen in the background
+        final EditorMetrics.Trace trace = trace(EditorAction.SAVE);
+        final FXOMDocument fxomDocument = editorController.getFxomDocument();
+        final int revision = editorController.getJobManager().getRevision();
+        final String fxmlText = editorController.getFxmlText(true);
+        return fxmlWriter.write(fxmlPath, fxmlText)
+                .whenComplete((written, throwable) -> trace.stop())
+                .whenCompleteAsync((written, throwable) -> {
+                    if (throwable != null) {
+                        trace.abort();
+                        LOGGER.log(Level.WARNING, "Error saving " + fxmlPath, throwable);
+                        if (editorController.getOwnerWindow() != null) {
+                            final AlertDialog d = new AlertDialog(editorController.getOwnerWindow());
+                            d.setMessage(SBResources.getString("alert.save.failure.message"));
+                            d.setDetails(throwable.getCause() != null ? throwable.getCause().getMessage() : throwable.getMessage());
+                            d.showAndWait();
+                        }
+                    } else {
+                        trace.close();
+                        if (written) {
+                            LOGGER.fine(() -> "Saved " + fxmlPath);
+                        }
+                        AutosaveService autosaveService = sbPane.getAutosaveService();
+                        if (autosaveService != null) {
+                            autosaveService.markClean(fxomDocument, revision);
+                        }
+                    }
+                }, Platform::runLater);
+    }
+
     private boolean canPerformCopy() {
         boolean result;
         final Node focusOwner = mainPane.getScene().getFocusOwner();
@@ -281,7 +466,8 @@ public class SBController {
             final TextInputControl tic = getTextInputControl(focusOwner);
             tic.cut();
         } else {
-            this.editorController.performEditAction(EditorController.EditAction.CUT);
+            fxIdIndex.remove(editorController.getSelectedObjects(),
+                    () -> this.editorController.performEditAction(EditorController.EditAction.CUT));
         }
     }
 
@@ -301,7 +487,7 @@ public class SBController {
     private void performPaste() {
         final Node focusOwner = mainPane.getScene().getFocusOwner();
         if (editorController.canPerformEditAction(EditorController.EditAction.PASTE)) {
-            this.editorController.performEditAction(EditorController.EditAction.PASTE);
+            fxIdIndex.insert(() -> this.editorController.performEditAction(EditorController.EditAction.PASTE));
             sbPane.getContentPanelController().getGlassLayer().requestFocus();
         } else {
             assert isTextInputControlEditing(focusOwner);
@@ -334,10 +520,7 @@ public class SBController {
             tic.deleteNextChar();
         } else {
             final List<FXOMObject> selectedObjects = editorController.getSelectedObjects();
-            final Map<String, FXOMObject> fxIdMap = new HashMap<>();
-            for (FXOMObject selectedObject : selectedObjects) {
-                fxIdMap.putAll(selectedObject.collectFxIds());
-            }
+            final Map<String, FXOMObject> fxIdMap = fxIdIndex.collectFxIds(selectedObjects);
             FXOMNodes.removeToggleGroups(fxIdMap);
 
             final boolean deleteConfirmed;
@@ -348,28 +531,28 @@ public class SBController {
 
                 if (fxIdMap.size() == 1) {
                     if (selectedObjects.size() == 1) {
-                        message = resources.getString("alert.delete.fxid1of1.message");
+                        message = SBResources.getString("alert.delete.fxid1of1.message");
                     } else {
-                        message = resources.getString("alert.delete.fxid1ofN.message");
+                        message = SBResources.getString("alert.delete.fxid1ofN.message");
                     }
                 } else {
                     if (selectedObjects.size() == fxIdMap.size()) {
-                        message = resources.getString("alert.delete.fxidNofN.message");
+                        message = SBResources.getString("alert.delete.fxidNofN.message");
                     } else {
-                        message = resources.getString("alert.delete.fxidKofN.message");
+                        message = SBResources.getString("alert.delete.fxidKofN.message");
                     }
                 }
 
                 final AlertDialog d = new AlertDialog(editorController.getOwnerWindow());
                 d.setMessage(message);
-                d.setDetails(resources.getString("alert.delete.fxid.details"));
-                d.setOKButtonTitle(resources.getString("label.delete"));
+                d.setDetails(SBResources.getString("alert.delete.fxid.details"));
+                d.setOKButtonTitle(SBResources.getString("label.delete"));
 
                 deleteConfirmed = (d.showAndWait() == AbstractModalDialog.ButtonID.OK);
             }
 
             if (deleteConfirmed) {
-                editorController.performEditAction(EditorController.EditAction.DELETE);
+                fxIdIndex.remove(selectedObjects, () -> editorController.performEditAction(EditorController.EditAction.DELETE));
             }
         }
     }
@@ -428,19 +611,19 @@ public class SBController {
     }
 
     private boolean canPerformUndo() {
-        return editorController.getOwnerWindow().isFocused() && editorController.canUndo();
+        return editorController.getOwnerWindow().isFocused() && sbPane.getUndoHistory().canUndo();
     }
 
     private void performUndo() {
-        editorController.undo();
+        sbPane.getUndoHistory().undo();
     }
 
     private boolean canPerformRedo() {
-        return editorController.getOwnerWindow().isFocused() && editorController.canRedo();
+        return editorController.getOwnerWindow().isFocused() && sbPane.getUndoHistory().canRedo();
     }
 
     private void performRedo() {
-        editorController.redo();
+        sbPane.getUndoHistory().redo();
     }
 
     private boolean canPerformDuplicate() {
@@ -449,7 +632,7 @@ public class SBController {
     }
 
     private void performDuplicate() {
-        editorController.performEditAction(EditorController.EditAction.DUPLICATE);
+        fxIdIndex.insert(() -> editorController.performEditAction(EditorController.EditAction.DUPLICATE));
     }
 
     private boolean isPopupEditing(Node node) {
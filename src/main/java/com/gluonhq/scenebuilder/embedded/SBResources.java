@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.StringBinding;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.scene.Scene;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.ResourceBundle;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resources shared by all the {@link SceneBuilderPane}s of the application: the resource bundle,
+ * loaded once per locale, and the stylesheet, that is added only once to each scene regardless of
+ * how many panes it holds.
+ * <p>
+ * The texts of the panes are bound to the locale, so changing it with {@link #setLocale(Locale)}
+ * updates the panes already created.
+ */
+public final class SBResources {
+
+    private static final String BUNDLE_NAME = "com.gluonhq.scenebuilder.embedded.sb";
+    private static final String STYLESHEET = SBResources.class.getResource("sb.css").toExternalForm();
+
+    private static final Map<Locale, ResourceBundle> BUNDLES = new ConcurrentHashMap<>();
+    private static final Map<Scene, StylesheetUsers> STYLESHEET_USERS = new WeakHashMap<>();
+    private static final ReadOnlyObjectWrapper<Locale> LOCALE = new ReadOnlyObjectWrapper<>(SBResources.class, "locale", Locale.getDefault());
+    private static volatile ResourceBundle bundle = getBundle(LOCALE.get());
+
+    private SBResources() {
+    }
+
+    public static ReadOnlyObjectProperty<Locale> localeProperty() {
+        return LOCALE.getReadOnlyProperty();
+    }
+
+    /**
+     * Sets the locale of the texts of the panes. This has to be called in the JavaFX Application Thread.
+     */
+    public static void setLocale(Locale locale) {
+        Objects.requireNonNull(locale, "locale");
+        bundle = getBundle(locale);
+        LOCALE.set(locale);
+    }
+
+    public static Locale getLocale() {
+        return LOCALE.get();
+    }
+
+    /**
+     * @return the text for the key in the current locale, from any thread
+     */
+    static String getString(String key) {
+        return bundle.getString(key);
+    }
+
+    /**
+     * @return a binding to the text for the key, that is updated when the locale changes, and
+     * doesn't keep its users from being collected
+     */
+    static StringBinding text(String key) {
+        return Bindings.createStringBinding(() -> getBundle(LOCALE.get()).getString(key), LOCALE);
+    }
+
+    /**
+     * Adds the stylesheet to the scene, unless it was already added by another pane or by the
+     * application.
+     */
+    static void addStylesheet(Scene scene) {
+        StylesheetUsers users = STYLESHEET_USERS.computeIfAbsent(scene, s -> new StylesheetUsers());
+        if (users.count++ == 0 && !scene.getStylesheets().contains(STYLESHEET)) {
+            scene.getStylesheets().add(STYLESHEET);
+            users.added = true;
+        }
+    }
+
+    /**
+     * Removes the stylesheet from the scene, once every pane that added it has removed it, unless
+     * the application added it itself.
+     */
+    static void removeStylesheet(Scene scene) {
+        StylesheetUsers users = STYLESHEET_USERS.get(scene);
+        if (users != null && --users.count == 0) {
+            STYLESHEET_USERS.remove(scene);
+            if (users.added) {
+                scene.getStylesheets().remove(STYLESHEET);
+            }
+        }
+    }
+
+    private static ResourceBundle getBundle(Locale locale) {
+        return BUNDLES.computeIfAbsent(locale, l -> ResourceBundle.getBundle(BUNDLE_NAME, l));
+    }
+
+    /**
+     * The panes of a scene that use the stylesheet, and whether they added it to the scene
+     */
+    private static final class StylesheetUsers {
+        private int count;
+        private boolean added;
+    }
+}
@@ -38,23 +38,32 @@ import com.oracle.javafx.scenebuilder.kit.editor.panel.hierarchy.HierarchyPanelC
 import com.oracle.javafx.scenebuilder.kit.editor.panel.info.InfoPanelController;
 import com.oracle.javafx.scenebuilder.kit.editor.panel.inspector.InspectorPanelController;
 import com.oracle.javafx.scenebuilder.kit.editor.panel.library.LibraryPanelController;
+import com.oracle.javafx.scenebuilder.kit.editor.panel.util.dialog.AbstractModalDialog;
+import com.oracle.javafx.scenebuilder.kit.editor.panel.util.dialog.AlertDialog;
 import com.oracle.javafx.scenebuilder.kit.editor.search.SearchController;
+import com.oracle.javafx.scenebuilder.kit.fxom.FXOMDocument;
 import com.oracle.javafx.scenebuilder.kit.library.BuiltinLibrary;
 import com.oracle.javafx.scenebuilder.kit.library.Library;
-import com.oracle.javafx.scenebuilder.kit.library.user.UserLibrary;
+import com.oracle.javafx.scenebuilder.kit.library.util.JarReport;
 import com.oracle.javafx.scenebuilder.kit.preferences.MavenPreferences;
 import com.oracle.javafx.scenebuilder.kit.selectionbar.SelectionBarController;
+import javafx.application.Platform;
 import javafx.beans.InvalidationListener;
 import javafx.beans.Observable;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.Parent;
+import javafx.scene.Scene;
 import javafx.scene.control.Accordion;
 import javafx.scene.control.Label;
 import javafx.scene.control.MenuButton;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.RadioMenuItem;
 import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.control.SplitPane;
@@ -66,31 +75,264 @@ import javafx.scene.layout.Region;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import javafx.util.Subscription;
 
 import java.nio.file.Path;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.ResourceBundle;
-
-import static com.oracle.javafx.scenebuilder.kit.editor.EditorPlatform.IS_LINUX;
-import static com.oracle.javafx.scenebuilder.kit.editor.EditorPlatform.IS_MAC;
-import static com.oracle.javafx.scenebuilder.kit.editor.EditorPlatform.IS_WINDOWS;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
 
 public class SceneBuilderPane extends StackPane {
 
-    private final EditorController editorController = new EditorController();
-    private final AbstractHierarchyPanelController hierarchyPanelController = new HierarchyPanelController(editorController);
-    private final ContentPanelController contentPanelController = new ContentPanelController(editorController);
-    private final ResourceBundle resources = ResourceBundle.getBundle("com.gluonhq.scenebuilder.embedded.sb");
+    private static final Logger LOGGER = Logger.getLogger(SceneBuilderPane.class.getName());
+
+    private final StartupProfile startupProfile = new StartupProfile();
+    private final EditorController editorController =
+            startupProfile.measure("EditorController", EditorController::new);
+    private final AbstractHierarchyPanelController hierarchyPanelController =
+            startupProfile.measure("HierarchyPanelController", () -> new HierarchyPanelController(editorController));
+    private final ContentPanelController contentPanelController =
+            startupProfile.measure("ContentPanelController", () -> new ContentPanelController(editorController));
+    private final ContentUpdateThrottle contentUpdateThrottle =
+            new ContentUpdateThrottle(editorController, contentPanelController);
     private final SBController sbController;
+    private final KeyMap keyMap = new KeyMap();
+    private final EditorMetrics metrics = new EditorMetrics();
+    private final UndoHistory undoHistory = new UndoHistory(editorController);
+    private final ProgressIndicator libraryProgressIndicator = new ProgressIndicator();
+    private final ProgressBar documentProgressBar = new ProgressBar();
+    private final Label documentProgressLabel = new Label();
+    private final SceneBuilderWorkspace workspace;
+    private final LibraryLoader libraryLoader;
+    private final EmbeddedLibrary library;
+    private final AutosaveService autosaveService;
+    private final boolean showLibrary;
+    private final boolean showControllerPanel;
+    private final boolean showInspector;
+    private final boolean showSelectionBar;
+    private final InvalidationListener windowListener = new InvalidationListener() {
+        @Override
+        public void invalidated(Observable observable) {
+            if (getScene().getWindow() != null) {
+                editorController.setOwnerWindow((Stage) getScene().getWindow());
+
+                // custom library from module path and class path
+                libraryLoader.load(startupProfile);
+
+                if (autosaveService != null) {
+                    autosaveService.start();
+                    offerRecovery();
+                }
+
+                getScene().windowProperty().removeListener(this);
+            }
+        }
+    };
+    private final List<DebouncedSearch> searches = new ArrayList<>();
+    private Duration searchDelay = DebouncedSearch.DEFAULT_DELAY;
+    private Scene stylesheetScene;
+    private Subscription focusSubscription = Subscription.EMPTY;
+    private boolean disposed;
+    private EditTransaction transaction;
+    private FXOMDocument measuredDocument;
+    private int measuredRevision;
+    private int documentSize;
 
     public SceneBuilderPane() {
+        this(builder());
+    }
+
+    private SceneBuilderPane(Builder builder) {
+        showLibrary = builder.library;
+        showControllerPanel = builder.controllerPanel;
+        showInspector = builder.inspector;
+        showSelectionBar = builder.selectionBar;
+        contentUpdateThrottle.setEnabled(builder.throttleContentUpdates);
+        workspace = builder.workspace;
+        libraryLoader = workspace != null ? workspace.getLibraryLoader() :
+                startupProfile.measure("LibraryLoader", LibraryLoader::new);
+        library = libraryLoader.getLibrary();
+        Path recoveryFolder = AppData.getRecoveryPath();
+        autosaveService = recoveryFolder == null ? null : new AutosaveService(editorController, recoveryFolder);
         Node mainPane = createSBPane();
         getStyleClass().add("theme-presets");
-        getChildren().addAll(mainPane);
-        sbController = new SBController(this);
+        getChildren().addAll(mainPane, createDocumentProgressPane());
+        sbController = startupProfile.measure("SBController", () -> new SBController(this));
+
+        startupProfile.measure("newFXML", sbController::newFXML);
+        libraryLoader.whenReady().thenRun(startupProfile::complete);
+        startupProfile.whenComplete().thenAccept(profile -> LOGGER.fine(profile::summary));
+
+        if (workspace != null) {
+            workspace.add(this);
+            focusSubscription = focusWithinProperty().subscribe(focused -> {
+                if (focused) {
+                    workspace.activate(this);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns a builder to create a pane without some of its panels. The library, the controller panel
+     * and the inspector are only created when they are shown for the first time.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns a future that completes, on the JavaFX Application Thread, once the custom library
+     * has been created and set, or with the builtin library if it couldn't be created.
+     */
+    public CompletableFuture<Library> whenLibraryReady() {
+        return libraryLoader.whenReady();
+    }
+
+    /**
+     * Sets the filter applied to the dependencies scanned for the custom library. It has to be
+     * set before the pane is shown for the first time. Panes of a workspace share the same filter.
+     */
+    public void setLibraryFilter(LibraryFilter libraryFilter) {
+        libraryLoader.setLibraryFilter(libraryFilter);
+    }
+
+    public LibraryFilter getLibraryFilter() {
+        return libraryLoader.getLibraryFilter();
+    }
+
+    /**
+     * Returns the workspace this pane belongs to, or null
+     */
+    public SceneBuilderWorkspace getWorkspace() {
+        return workspace;
+    }
+
+    /**
+     * Returns the reports of the jars explored for the custom library, which are updated
+     * after each change in the library folder.
+     */
+    public ObservableList<JarReport> getJarReports() {
+        return library.getJarReports();
+    }
+
+    /**
+     * Sets the delay during which changes in the custom library are coalesced before the
+     * library panel is updated. Default is 500 ms.
+     */
+    public void setLibraryUpdateDelay(Duration delay) {
+        library.setUpdateDelay(delay);
+    }
+
+    public Duration getLibraryUpdateDelay() {
+        return library.getUpdateDelay();
+    }
+
+    /**
+     * Sets the pause in typing after which the text of the library and inspector search fields is
+     * applied. Default is 150 ms.
+     */
+    public void setSearchDelay(Duration delay) {
+        searchDelay = Objects.requireNonNull(delay);
+        searches.forEach(search -> search.setDelay(delay));
+    }
+
+    public Duration getSearchDelay() {
+        return searchDelay;
+    }
+
+    /**
+     * Opens the given FXML file. The file is read and parsed in the background, and the returned
+     * future completes once the document has been set in the editor, or is cancelled if another
+     * document is opened in the meantime.
+     */
+    public CompletableFuture<Void> openFXML(Path path) {
+        return sbController.openFXML(path);
+    }
+
+    /**
+     * Saves the document to the given FXML file. The text is encoded and written in the background,
+     * and the returned future completes with false if there was nothing to write, as the file
+     * already has the same content, or true otherwise.
+     */
+    public CompletableFuture<Boolean> saveFXML(Path path) {
+        return sbController.saveFXML(path);
+    }
+
+    /**
+     * Sets how often the document, if modified, is saved to a recovery journal under the
+     * application data folder. A zero or null duration disables autosave. Default is 30 seconds.
+     */
+    public void setAutosaveInterval(Duration interval) {
+        if (autosaveService != null) {
+            autosaveService.setInterval(interval);
+        }
+    }
+
+    public Duration getAutosaveInterval() {
+        return autosaveService == null ? Duration.ZERO : autosaveService.getInterval();
+    }
+
+    /**
+     * Returns the timing of the startup phases of this pane, which is complete once the
+     * custom library is ready
+     */
+    public StartupProfile getStartupProfile() {
+        return startupProfile;
+    }
 
-        sbController.newFXML();
+    /**
+     * Returns the counters and duration percentiles of the editor actions performed in this pane
+     */
+    public EditorMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the key bindings of the editor actions, which can be changed at any time
+     */
+    public KeyMap getKeyMap() {
+        return keyMap;
+    }
+
+    /**
+     * Returns the undo history of the document, whose depth and retained memory can be bounded
+     */
+    public UndoHistory getUndoHistory() {
+        return undoHistory;
+    }
+
+    /**
+     * Returns the throttle of the content updates caused by the inspector
+     */
+    public ContentUpdateThrottle getContentUpdateThrottle() {
+        return contentUpdateThrottle;
+    }
+
+    /**
+     * Starts a transaction to edit the document programmatically, in the JavaFX Application Thread.
+     * Only one transaction can be active at a time.
+     */
+    public EditTransaction beginTransaction() {
+        if (!Platform.isFxApplicationThread()) {
+            throw new IllegalStateException("Not on FX application thread");
+        }
+        if (transaction != null) {
+            throw new IllegalStateException("A transaction is already active");
+        }
+        restoreDocument();
+        transaction = new EditTransaction(this);
+        return transaction;
+    }
+
+    void endTransaction(EditTransaction transaction) {
+        if (this.transaction == transaction) {
+            this.transaction = null;
+        }
     }
 
     public EventHandler<ActionEvent> newFXMLHandler() {
@@ -105,6 +347,42 @@ public class SceneBuilderPane extends StackPane {
         return e -> sbController.saveFXML();
     }
 
+    /**
+     * Releases the resources held by this pane: it stops autosaving and deletes its recovery journal,
+     * releases the custom library, which stops watching the library folder if no other pane uses it,
+     * and removes the stylesheet added to the scene. An active transaction is ended, keeping its edits.
+     * The pane can't be used after it is disposed.
+     */
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        disposed = true;
+        if (transaction != null) {
+            transaction.abandon();
+        }
+        sbController.dispose();
+        contentUpdateThrottle.dispose();
+        searches.forEach(DebouncedSearch::dispose);
+        searches.clear();
+        if (autosaveService != null) {
+            autosaveService.stop();
+        }
+        if (workspace != null) {
+            focusSubscription.unsubscribe();
+            workspace.remove(this);
+        } else {
+            libraryLoader.dispose();
+        }
+        // stop listening to the library, that may be shared
+        editorController.setLibrary(BuiltinLibrary.getLibrary());
+        if (stylesheetScene != null) {
+            stylesheetScene.windowProperty().removeListener(windowListener);
+            SBResources.removeStylesheet(stylesheetScene);
+            stylesheetScene = null;
+        }
+    }
+
     EditorController getEditorController() {
         return editorController;
     }
@@ -117,50 +395,89 @@ public class SceneBuilderPane extends StackPane {
         return contentPanelController;
     }
 
+    AutosaveService getAutosaveService() {
+        return autosaveService;
+    }
+
+    boolean isDocumentEvicted() {
+        return sbController.isDocumentEvicted();
+    }
+
+    boolean evictDocument() {
+        return transaction == null && sbController.evictDocument();
+    }
+
+    void restoreDocument() {
+        sbController.restoreDocument();
+    }
+
+    void documentOpened() {
+        if (workspace != null) {
+            workspace.documentOpened(this);
+        }
+    }
+
+    /**
+     * Returns the number of objects of the document, only counted again when the scene graph has changed
+     */
+    int getDocumentSize() {
+        FXOMDocument document = editorController.getFxomDocument();
+        int revision = document == null ? 0 : document.getSceneGraphRevision();
+        if (document != measuredDocument || revision != measuredRevision) {
+            documentSize = EditorMetrics.documentSize(document);
+            measuredDocument = document;
+            measuredRevision = revision;
+        }
+        return documentSize;
+    }
+
+    void showProgress(Task<?> task) {
+        documentProgressBar.progressProperty().bind(task.progressProperty());
+        documentProgressLabel.textProperty().bind(task.messageProperty());
+        documentProgressBar.getParent().visibleProperty().bind(task.runningProperty());
+    }
+
+    private Node createDocumentProgressPane() {
+        documentProgressBar.setPrefWidth(200);
+        VBox progressPane = new VBox(5, documentProgressLabel, documentProgressBar);
+        progressPane.getStyleClass().add("document-progress");
+        progressPane.setAlignment(Pos.CENTER);
+        progressPane.setVisible(false);
+        return progressPane;
+    }
+
     private Node createSBPane() {
         // left
-        Library library = new Library() {
-            {
-                getItems().addAll(BuiltinLibrary.getLibrary().getItems());
-            }
-            @Override
-            public Comparator<String> getSectionComparator() {
-                return (s1, s2) -> BuiltinLibrary.getLibrary().getSectionComparator().compare(s1, s2);
-            }
-        };
         editorController.setLibrary(library);
         sceneProperty().addListener(new InvalidationListener() {
             @Override
             public void invalidated(Observable observable) {
                 if (getScene() != null) {
-                    getScene().getStylesheets().add(SceneBuilderPane.class.getResource("sb.css").toExternalForm());
-                    getScene().windowProperty().addListener(new InvalidationListener() {
-                        @Override
-                        public void invalidated(Observable observable) {
-                            if (getScene().getWindow() != null) {
-                                editorController.setOwnerWindow((Stage) getScene().getWindow());
-
-                                // custom library from module path and class path
-                                List<Path> scan = DependenciesScanner.scan();
-                                createCustomLibrary(scan);
-
-                                getScene().windowProperty().removeListener(this);
-                            }
-                        }
-                    });
+                    stylesheetScene = getScene();
+                    SBResources.addStylesheet(stylesheetScene);
+                    stylesheetScene.windowProperty().addListener(windowListener);
                     sceneProperty().removeListener(this);
                 }
             }
         });
 
-        SplitPane mainPane = new SplitPane(createLeftSide(), createCenter(), createRightSide());
-        mainPane.setDividerPositions(0.25, 0.75);
+        SplitPane mainPane = new SplitPane(
+                startupProfile.measure("createLeftSide", this::createLeftSide),
+                startupProfile.measure("createCenter", this::createCenter));
+        if (showInspector) {
+            LazyPane rightSide = new LazyPane(() -> startupProfile.measure("createRightSide", this::createRightSide));
+            SplitPane.setResizableWithParent(rightSide, Boolean.FALSE);
+            mainPane.getItems().add(rightSide);
+            mainPane.setDividerPositions(0.25, 0.75);
+        } else {
+            mainPane.setDividerPositions(0.25);
+        }
         return mainPane;
     }
 
-    private Node createLeftSide() {
-        // Library
-        Label libraryLabel = new Label(resources.getString("left.library"));
+    private Node createLibrarySide() {
+        Label libraryLabel = new Label();
+        libraryLabel.textProperty().bind(SBResources.text("left.library"));
         libraryLabel.setMinWidth(Double.NEGATIVE_INFINITY);
         libraryLabel.setMaxWidth(Double.NEGATIVE_INFINITY);
         HBox.setHgrow(libraryLabel, Priority.NEVER);
@@ -171,17 +488,24 @@ public class SceneBuilderPane extends StackPane {
         region.getStyleClass().add("cog-shape");
         ToggleGroup libraryDisplayOptionTG = new ToggleGroup();
         MenuButton libraryMenuButton = new MenuButton(null, region);
-        RadioMenuItem libraryViewAsList = new RadioMenuItem(resources.getString("library.panel.menu.view.list"));
+        RadioMenuItem libraryViewAsList = new RadioMenuItem();
+        libraryViewAsList.textProperty().bind(SBResources.text("library.panel.menu.view.list"));
         libraryViewAsList.setToggleGroup(libraryDisplayOptionTG);
-        RadioMenuItem libraryViewAsSections = new RadioMenuItem(resources.getString("library.panel.menu.view.sections"));
+        RadioMenuItem libraryViewAsSections = new RadioMenuItem();
+        libraryViewAsSections.textProperty().bind(SBResources.text("library.panel.menu.view.sections"));
         libraryViewAsSections.setToggleGroup(libraryDisplayOptionTG);
         libraryViewAsSections.setSelected(true);
         libraryMenuButton.getItems().addAll(libraryViewAsList, libraryViewAsSections);
-        HBox hBoxTop = new HBox(libraryLabel, searchPane, libraryMenuButton);
+        libraryProgressIndicator.getStyleClass().add("library-progress");
+        libraryProgressIndicator.setMaxSize(16, 16);
+        libraryProgressIndicator.visibleProperty().bind(libraryLoader.loadingProperty());
+        libraryProgressIndicator.managedProperty().bind(libraryProgressIndicator.visibleProperty());
+        HBox hBoxTop = new HBox(libraryLabel, libraryProgressIndicator, searchPane, libraryMenuButton);
         hBoxTop.getStyleClass().add("panel-header");
         hBoxTop.setAlignment(Pos.CENTER_LEFT);
         LibraryPanelController libraryPanelController = new LibraryPanelController(editorController, new MavenPreferences());
-        librarySearchController.textProperty().subscribe((ov, nv) -> libraryPanelController.setSearchPattern(nv));
+        DebouncedSearch librarySearch = createSearch(libraryPanelController::setSearchPattern);
+        librarySearchController.textProperty().subscribe((ov, nv) -> librarySearch.search(nv));
         libraryViewAsList.setOnAction(e -> {
             if (libraryPanelController.getDisplayMode() != LibraryPanelController.DISPLAY_MODE.SEARCH) {
                 libraryPanelController.setDisplayMode(LibraryPanelController.DISPLAY_MODE.LIST);
@@ -197,21 +521,27 @@ public class SceneBuilderPane extends StackPane {
             }
         });
         Node libraryView = libraryPanelController.getPanelRoot();
-        VBox vBoxTop = new VBox(hBoxTop, libraryView);
+        return new VBox(hBoxTop, libraryView);
+    }
 
+    private Node createLeftSide() {
         // Document
-        Label documentLabel = new Label(resources.getString("left.document"));
+        Label documentLabel = new Label();
+        documentLabel.textProperty().bind(SBResources.text("left.document"));
 
         Region docRegion = new Region();
         docRegion.getStyleClass().add("cog-shape");
         ToggleGroup hierarchyDisplayOptionTG = new ToggleGroup();
         MenuButton hierarchyMenuButton = new MenuButton(null, docRegion);
-        RadioMenuItem showInfoMenuItem = new RadioMenuItem(resources.getString("hierarchy.show.info"));
+        RadioMenuItem showInfoMenuItem = new RadioMenuItem();
+        showInfoMenuItem.textProperty().bind(SBResources.text("hierarchy.show.info"));
         showInfoMenuItem.setToggleGroup(hierarchyDisplayOptionTG);
         showInfoMenuItem.setSelected(true);
-        RadioMenuItem showFxIdMenuItem = new RadioMenuItem(resources.getString("hierarchy.show.fxid"));
+        RadioMenuItem showFxIdMenuItem = new RadioMenuItem();
+        showFxIdMenuItem.textProperty().bind(SBResources.text("hierarchy.show.fxid"));
         showFxIdMenuItem.setToggleGroup(hierarchyDisplayOptionTG);
-        RadioMenuItem showNodeIdMenuItem = new RadioMenuItem(resources.getString("hierarchy.show.nodeid"));
+        RadioMenuItem showNodeIdMenuItem = new RadioMenuItem();
+        showNodeIdMenuItem.textProperty().bind(SBResources.text("hierarchy.show.nodeid"));
         showNodeIdMenuItem.setToggleGroup(hierarchyDisplayOptionTG);
         hierarchyMenuButton.getItems().addAll(showInfoMenuItem, showFxIdMenuItem, showNodeIdMenuItem);
         showInfoMenuItem.setOnAction(e ->
@@ -228,32 +558,45 @@ public class SceneBuilderPane extends StackPane {
         hBoxBottom.setAlignment(Pos.CENTER_LEFT);
 
         Node hierarchyView = hierarchyPanelController.getPanelRoot();
-        TitledPane hierarchyPane = new TitledPane(resources.getString("left.hierarchy"), hierarchyView);
-        Node controllerView = new InfoPanelController(editorController).getPanelRoot();
-        TitledPane controllerPane = new TitledPane(resources.getString("left.controller"), controllerView);
-        Accordion accordion = new Accordion(hierarchyPane, controllerPane);
+        TitledPane hierarchyPane = new TitledPane(null, hierarchyView);
+        hierarchyPane.textProperty().bind(SBResources.text("left.hierarchy"));
+        Accordion accordion = new Accordion(hierarchyPane);
+        if (showControllerPanel) {
+            Node controllerView = new LazyPane(() -> startupProfile.measure("createControllerPanel",
+                    () -> new InfoPanelController(editorController).getPanelRoot()));
+            TitledPane controllerPane = new TitledPane(null, controllerView);
+            controllerPane.textProperty().bind(SBResources.text("left.controller"));
+            accordion.getPanes().add(controllerPane);
+        }
         accordion.setExpandedPane(hierarchyPane);
         VBox vBoxBottom = new VBox(hBoxBottom, accordion);
 
-        SplitPane leftPane = new SplitPane(vBoxTop, vBoxBottom);
+        SplitPane leftPane = new SplitPane(vBoxBottom);
+        if (showLibrary) {
+            leftPane.getItems().addFirst(new LazyPane(() -> startupProfile.measure("createLibrarySide", this::createLibrarySide)));
+            leftPane.setDividerPositions(0.5, 0.5);
+        }
         leftPane.setOrientation(Orientation.VERTICAL);
-        leftPane.setDividerPositions(0.5, 0.5);
         SplitPane.setResizableWithParent(leftPane, Boolean.FALSE);
         return leftPane;
     }
 
     private Node createCenter() {
-        Parent selectionBarPane = new SelectionBarController(editorController).getPanelRoot();
-        selectionBarPane.getStyleClass().add("selection-bar-container");
         Node contentView = contentPanelController.getPanelRoot();
         VBox.setVgrow(contentView, Priority.ALWAYS);
-        VBox contentBox = new VBox(selectionBarPane, contentView);
+        VBox contentBox = new VBox(contentView);
+        if (showSelectionBar) {
+            Parent selectionBarPane = new SelectionBarController(editorController).getPanelRoot();
+            selectionBarPane.getStyleClass().add("selection-bar-container");
+            contentBox.getChildren().addFirst(selectionBarPane);
+        }
         return contentBox;
     }
 
     private Node createRightSide() {
         // Inspector
-        Label inspectorLabel = new Label(resources.getString("right.inspector"));
+        Label inspectorLabel = new Label();
+        inspectorLabel.textProperty().bind(SBResources.text("right.inspector"));
         inspectorLabel.setMinWidth(Double.NEGATIVE_INFINITY);
         inspectorLabel.setMaxWidth(Double.NEGATIVE_INFINITY);
         HBox.setHgrow(inspectorLabel, Priority.NEVER);
@@ -265,19 +608,24 @@ public class SceneBuilderPane extends StackPane {
         region.getStyleClass().add("cog-shape");
         ToggleGroup inspectorShowTG = new ToggleGroup();
         MenuButton inspectorMenuButton = new MenuButton(null, region);
-        RadioMenuItem inspectorShowAll = new RadioMenuItem(resources.getString("inspector.show.all"));
+        RadioMenuItem inspectorShowAll = new RadioMenuItem();
+        inspectorShowAll.textProperty().bind(SBResources.text("inspector.show.all"));
         inspectorShowAll.setToggleGroup(inspectorShowTG);
         inspectorShowAll.setSelected(true);
-        RadioMenuItem inspectorShowEdited = new RadioMenuItem(resources.getString("inspector.show.edited"));
+        RadioMenuItem inspectorShowEdited = new RadioMenuItem();
+        inspectorShowEdited.textProperty().bind(SBResources.text("inspector.show.edited"));
         inspectorShowEdited.setToggleGroup(inspectorShowTG);
 
         ToggleGroup inspectorViewTG = new ToggleGroup();
-        RadioMenuItem inspectorViewSections = new RadioMenuItem(resources.getString("inspector.view.sections"));
+        RadioMenuItem inspectorViewSections = new RadioMenuItem();
+        inspectorViewSections.textProperty().bind(SBResources.text("inspector.view.sections"));
         inspectorViewSections.setToggleGroup(inspectorViewTG);
         inspectorViewSections.setSelected(true);
-        RadioMenuItem inspectorViewByPropertyName = new RadioMenuItem(resources.getString("inspector.by.property.name"));
+        RadioMenuItem inspectorViewByPropertyName = new RadioMenuItem();
+        inspectorViewByPropertyName.textProperty().bind(SBResources.text("inspector.by.property.name"));
         inspectorViewByPropertyName.setToggleGroup(inspectorViewTG);
-        RadioMenuItem inspectorViewByPropertyType = new RadioMenuItem(resources.getString("inspector.by.property.type"));
+        RadioMenuItem inspectorViewByPropertyType = new RadioMenuItem();
+        inspectorViewByPropertyType.textProperty().bind(SBResources.text("inspector.by.property.type"));
         inspectorViewByPropertyType.setToggleGroup(inspectorViewTG);
         inspectorMenuButton.getItems().addAll(inspectorShowAll, inspectorShowEdited,
                 new SeparatorMenuItem(),
@@ -293,43 +641,90 @@ public class SceneBuilderPane extends StackPane {
         inspectorViewSections.setOnAction(e -> inspectorPanelController.setViewMode(InspectorPanelController.ViewMode.SECTION));
         inspectorViewByPropertyName.setOnAction(e -> inspectorPanelController.setViewMode(InspectorPanelController.ViewMode.PROPERTY_NAME));
         inspectorViewByPropertyType.setOnAction(e -> inspectorPanelController.setViewMode(InspectorPanelController.ViewMode.PROPERTY_TYPE));
-        inspectorSearchController.textProperty().subscribe((ov, nv) -> inspectorPanelController.setSearchPattern(nv));
+        DebouncedSearch inspectorSearch = createSearch(inspectorPanelController::setSearchPattern);
+        inspectorSearchController.textProperty().subscribe((ov, nv) -> inspectorSearch.search(nv));
         Node inspectorView = inspectorPanelController.getPanelRoot();
+        contentUpdateThrottle.install(inspectorView);
         VBox.setVgrow(inspectorView, Priority.ALWAYS);
-        VBox rightBox = new VBox(hBoxInspectorTop, inspectorView);
-        SplitPane.setResizableWithParent(rightBox, Boolean.FALSE);
-        return rightBox;
+        return new VBox(hBoxInspectorTop, inspectorView);
     }
 
-    private void createCustomLibrary(List<Path> paths) {
-        UserLibrary userLibrary = new UserLibrary(getUserLibraryFolder(), () -> paths, List::of);
-        userLibrary.setOnUpdatedJarReports(jarReports -> {});
-        userLibrary.startWatching();
-
-        editorController.setLibrary(userLibrary);
+    private DebouncedSearch createSearch(Consumer<String> applyPattern) {
+        DebouncedSearch search = new DebouncedSearch(applyPattern);
+        search.setDelay(searchDelay);
+        searches.add(search);
+        return search;
     }
 
-    private static String applicationDataFolder;
-    private static String userLibraryFolder;
+    private void offerRecovery() {
+        AutosaveService.findOrphanJournal(AppData.getRecoveryPath())
+                .thenAcceptAsync(journal -> journal.ifPresent(this::recover), Platform::runLater);
+    }
 
-    private String getApplicationDataFolder() {
-        if (applicationDataFolder == null) {
-            final String appName = "Scene Builder";
-            if (IS_WINDOWS) {
-                applicationDataFolder = System.getenv("APPDATA") + "\\" + appName;
-            } else if (IS_MAC) {
-                applicationDataFolder = System.getProperty("user.home") + "/Library/Application Support/" + appName;
-            } else if (IS_LINUX) {
-                applicationDataFolder = System.getProperty("user.home") + "/.scenebuilder";
-            }
+    private void recover(AutosaveService.Journal journal) {
+        final AlertDialog d = new AlertDialog(editorController.getOwnerWindow());
+        d.setMessage(SBResources.getString("alert.recovery.message"));
+        d.setDetails(journal.location() == null ?
+                SBResources.getString("alert.recovery.untitled") : journal.location().toExternalForm());
+        d.setOKButtonTitle(SBResources.getString("label.recover"));
+        d.setCancelButtonTitle(SBResources.getString("label.discard"));
+        if (d.showAndWait() == AbstractModalDialog.ButtonID.OK) {
+            sbController.recoverFXML(journal.fxmlText(), journal.location());
         }
-        return applicationDataFolder;
+        journal.discard();
     }
 
-    private String getUserLibraryFolder() {
-        if (userLibraryFolder == null) {
-            userLibraryFolder = getApplicationDataFolder() + "/Library";
+    public static final class Builder {
+
+        private boolean library = true;
+        private boolean controllerPanel = true;
+        private boolean inspector = true;
+        private boolean selectionBar = true;
+        private boolean throttleContentUpdates;
+        private SceneBuilderWorkspace workspace;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds the pane to the workspace, sharing its library with the other panes of the workspace
+         */
+        public Builder workspace(SceneBuilderWorkspace workspace) {
+            this.workspace = workspace;
+            return this;
+        }
+
+        public Builder library(boolean show) {
+            library = show;
+            return this;
+        }
+
+        public Builder controllerPanel(boolean show) {
+            controllerPanel = show;
+            return this;
+        }
+
+        public Builder inspector(boolean show) {
+            inspector = show;
+            return this;
+        }
+
+        public Builder selectionBar(boolean show) {
+            selectionBar = show;
+            return this;
+        }
+
+        /**
+         * Coalesces the updates of the content caused by the inspector, see {@link ContentUpdateThrottle}.
+         * Disabled by default.
+         */
+        public Builder throttleContentUpdates(boolean throttle) {
+            throttleContentUpdates = throttle;
+            return this;
+        }
+
+        public SceneBuilderPane build() {
+            return new SceneBuilderPane(this);
         }
-        return userLibraryFolder;
     }
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.library.Library;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A group of {@link SceneBuilderPane}s, for instance the tabs of a multi-document editor, that share
+ * one library, so the dependencies are scanned and the custom library is created only once.
+ * <p>
+ * Only the most recently activated documents are kept live. When there are more than
+ * {@link #getMaxLiveDocuments()} live documents, or more than {@link #getMaxLiveObjects()} objects
+ * in them, the least recently activated documents are evicted: their FXML text is kept and their
+ * editor is cleared. An evicted document is restored from its text when its pane is activated, either
+ * when it gets the focus or with {@link #activate(SceneBuilderPane)}, for instance when its tab is
+ * selected. The undo history and the selection of evicted documents are not kept.
+ * <p>
+ * A workspace has to be used from the JavaFX Application Thread.
+ */
+public final class SceneBuilderWorkspace {
+
+    private final LibraryLoader libraryLoader = new LibraryLoader();
+    // least recently activated first
+    private final LinkedHashSet<SceneBuilderPane> panes = new LinkedHashSet<>();
+    private int maxLiveDocuments = 8;
+    private int maxLiveObjects = Integer.MAX_VALUE;
+
+    /**
+     * Creates a pane with all its panels in this workspace. Use {@link SceneBuilderPane#builder()} to
+     * customize it.
+     */
+    public SceneBuilderPane createPane() {
+        return SceneBuilderPane.builder().workspace(this).build();
+    }
+
+    public List<SceneBuilderPane> getPanes() {
+        return List.copyOf(panes);
+    }
+
+    /**
+     * Sets the maximum number of documents that are kept live. Default is 8.
+     */
+    public void setMaxLiveDocuments(int maxLiveDocuments) {
+        if (maxLiveDocuments < 1) {
+            throw new IllegalArgumentException("At least one live document is required: " + maxLiveDocuments);
+        }
+        this.maxLiveDocuments = maxLiveDocuments;
+        trim();
+    }
+
+    public int getMaxLiveDocuments() {
+        return maxLiveDocuments;
+    }
+
+    /**
+     * Sets the maximum number of objects in the live documents, as an estimate of the memory they retain.
+     * The most recently activated document is kept live even if it exceeds it. There is no limit by default.
+     * <p>
+     * The limit is checked when a document is opened or restored, not while it is edited.
+     */
+    public void setMaxLiveObjects(int maxLiveObjects) {
+        this.maxLiveObjects = maxLiveObjects;
+        trim();
+    }
+
+    public int getMaxLiveObjects() {
+        return maxLiveObjects;
+    }
+
+    /**
+     * Restores the document of the pane, if it was evicted, and makes it the most recently activated one
+     */
+    public void activate(SceneBuilderPane pane) {
+        if (!panes.contains(pane)) {
+            throw new IllegalArgumentException("The pane doesn't belong to this workspace");
+        }
+        boolean evicted = pane.isDocumentEvicted();
+        panes.remove(pane);
+        panes.add(pane);
+        if (evicted) {
+            pane.restoreDocument();
+            trim();
+        }
+    }
+
+    /**
+     * Returns true if the document of the pane is live, false if it is evicted
+     */
+    public boolean isLive(SceneBuilderPane pane) {
+        return panes.contains(pane) && !pane.isDocumentEvicted();
+    }
+
+    public void setLibraryFilter(LibraryFilter libraryFilter) {
+        libraryLoader.setLibraryFilter(libraryFilter);
+    }
+
+    public LibraryFilter getLibraryFilter() {
+        return libraryLoader.getLibraryFilter();
+    }
+
+    /**
+     * Returns a future that completes, on the JavaFX Application Thread, once the shared custom library
+     * has been created, which starts when the first pane of the workspace is shown.
+     */
+    public CompletableFuture<Library> whenLibraryReady() {
+        return libraryLoader.whenReady();
+    }
+
+    /**
+     * Disposes all the panes of the workspace and releases the shared library
+     */
+    public void dispose() {
+        for (SceneBuilderPane pane : List.copyOf(panes)) {
+            pane.dispose();
+        }
+        libraryLoader.dispose();
+    }
+
+    LibraryLoader getLibraryLoader() {
+        return libraryLoader;
+    }
+
+    void add(SceneBuilderPane pane) {
+        panes.add(pane);
+        trim();
+    }
+
+    void remove(SceneBuilderPane pane) {
+        panes.remove(pane);
+    }
+
+    /**
+     * Called when a pane has opened a document, which may be larger than the one it replaced
+     */
+    void documentOpened(SceneBuilderPane pane) {
+        if (panes.contains(pane)) {
+            trim();
+        }
+    }
+
+    private void trim() {
+        List<SceneBuilderPane> live = new ArrayList<>();
+        boolean countObjects = maxLiveObjects != Integer.MAX_VALUE;
+        int objects = 0;
+        for (SceneBuilderPane pane : panes) {
+            if (!pane.isDocumentEvicted()) {
+                live.add(pane);
+                if (countObjects) {
+                    objects += pane.getDocumentSize();
+                }
+            }
+        }
+        // the most recently activated document is never evicted
+        int liveCount = live.size();
+        for (int i = 0; i < live.size() - 1 && (liveCount > maxLiveDocuments || objects > maxLiveObjects); i++) {
+            SceneBuilderPane pane = live.get(i);
+            int size = countObjects ? pane.getDocumentSize() : 0;
+            if (pane.evictDocument()) {
+                liveCount--;
+                objects -= size;
+            }
+        }
+    }
+}
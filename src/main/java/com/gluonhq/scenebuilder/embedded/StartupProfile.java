@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import javafx.util.Duration;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Wall time and allocation of the phases of the startup of a {@link SceneBuilderPane}, from its
+ * creation until the custom library is ready. Each phase is also recorded as a
+ * {@code com.gluonhq.scenebuilder.StartupPhase} JFR event.
+ */
+public final class StartupProfile {
+
+    /**
+     * A startup phase, with its start relative to the creation of the pane. The allocated bytes
+     * are -1 if the allocation of the thread that ran the phase couldn't be measured.
+     */
+    public record Phase(String name, String thread, Duration start, Duration duration, long allocatedBytes) {}
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean &&
+                    bean.isThreadAllocatedMemorySupported() ? bean : null;
+
+    private final long startNanos = System.nanoTime();
+    private final List<Phase> phases = new CopyOnWriteArrayList<>();
+    private final CompletableFuture<StartupProfile> completed = new CompletableFuture<>();
+    private volatile long endNanos = -1;
+
+    StartupProfile() {}
+
+    <T> T measure(String name, Supplier<T> supplier) {
+        try (Timer ignored = start(name)) {
+            return supplier.get();
+        }
+    }
+
+    void measure(String name, Runnable runnable) {
+        try (Timer ignored = start(name)) {
+            runnable.run();
+        }
+    }
+
+    /**
+     * Starts a phase, which ends when the returned timer is closed, possibly in another thread
+     */
+    Timer start(String name) {
+        return new Timer(name);
+    }
+
+    void complete() {
+        if (endNanos < 0) {
+            endNanos = System.nanoTime();
+            completed.complete(this);
+        }
+    }
+
+    /**
+     * Returns the phases recorded so far, sorted by start
+     */
+    public List<Phase> getPhases() {
+        return phases.stream()
+                .sorted(Comparator.comparing(Phase::start))
+                .toList();
+    }
+
+    /**
+     * Returns the time from the creation of the pane until the custom library was ready,
+     * or until now if the startup hasn't completed yet
+     */
+    public Duration getElapsedTime() {
+        long end = endNanos;
+        return toDuration((end < 0 ? System.nanoTime() : end) - startNanos);
+    }
+
+    public boolean isComplete() {
+        return endNanos >= 0;
+    }
+
+    /**
+     * Returns a future that completes with this profile once the custom library is ready
+     */
+    public CompletableFuture<StartupProfile> whenComplete() {
+        return completed.copy();
+    }
+
+    /**
+     * Returns a printable table of the phases, suitable for logging
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder(String.format("SceneBuilderPane startup: %.1f ms%s%n",
+                getElapsedTime().toMillis(), isComplete() ? "" : " (in progress)"));
+        for (Phase phase : getPhases()) {
+            sb.append(String.format("  %-26s at %8.1f ms %8.1f ms %10s  %s%n",
+                    phase.name(), phase.start().toMillis(), phase.duration().toMillis(),
+                    phase.allocatedBytes() < 0 ? "-" : String.format("%.1f MB", phase.allocatedBytes() / (1024.0 * 1024.0)),
+                    phase.thread()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return summary();
+    }
+
+    private static Duration toDuration(long nanos) {
+        return Duration.millis(nanos / 1_000_000.0);
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        // -1 for virtual threads, or if allocation measurement is disabled
+        return THREAD_MX_BEAN == null ? -1 : THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    final class Timer implements AutoCloseable {
+
+        private final String name;
+        private final Thread thread = Thread.currentThread();
+        private final long start = System.nanoTime();
+        private final long allocatedAtStart = currentThreadAllocatedBytes();
+        private final StartupPhaseEvent event = new StartupPhaseEvent();
+
+        private Timer(String name) {
+            this.name = name;
+            event.begin();
+        }
+
+        @Override
+        public void close() {
+            long end = System.nanoTime();
+            long allocated = -1;
+            if (Thread.currentThread() == thread && allocatedAtStart >= 0) {
+                long allocatedAtEnd = currentThreadAllocatedBytes();
+                if (allocatedAtEnd >= 0) {
+                    allocated = allocatedAtEnd - allocatedAtStart;
+                }
+            }
+            phases.add(new Phase(name, thread.getName(), toDuration(start - startNanos), toDuration(end - start), allocated));
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = name;
+                event.allocated = allocated;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,518 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.editor.EditorController;
+import com.oracle.javafx.scenebuilder.kit.editor.job.JobManager;
+import com.oracle.javafx.scenebuilder.kit.fxom.FXOMDocument;
+import javafx.application.Platform;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Undo history of a {@link SceneBuilderPane}, bounded in depth and memory.
+ * <p>
+ * The most recent edits are kept as jobs of the editor, that can be undone one by one. When there
+ * are more than {@link #getMaxDepth()} of them, or when the heap is nearly full after a collection,
+ * the current document is saved as a compressed checkpoint and the jobs are released: those edits
+ * are then undone at once by going back to the previous checkpoint.
+ * <p>
+ * Undoing past the live edits goes back one checkpoint at a time. Restoring a checkpoint reloads
+ * the document, so the selection is cleared. Only the most recent checkpoint is kept as a whole:
+ * the older ones just keep the text that differs from the next one. The oldest checkpoints are
+ * dropped once they take more than {@link #getMaxRetainedBytes()}.
+ */
+public final class UndoHistory {
+
+    private static final Logger LOGGER = Logger.getLogger(UndoHistory.class.getName());
+    private static final double HEAP_THRESHOLD = 0.85;
+
+    /**
+     * A document text: either the whole text, or the part that differs from the text of the next
+     * (more recent) checkpoint, between a common prefix and a common suffix.
+     */
+    record Checkpoint(byte[] data, int prefix, int suffix) {
+
+        boolean isWhole() {
+            return prefix < 0;
+        }
+    }
+
+    /**
+     * The live edits of a transaction, between two live depths, that are undone and redone together
+     */
+    private record Group(int start, int end) {
+    }
+
+    private final EditorController editorController;
+    private final Deque<Checkpoint> undoCheckpoints = new ArrayDeque<>();
+    private final Deque<Checkpoint> redoCheckpoints = new ArrayDeque<>();
+    private final List<Group> groups = new ArrayList<>();
+    private int maxDepth = 50;
+    private long maxRetainedBytes = 16L * 1024 * 1024;
+    private int liveDepth;
+    private long retainedBytes;
+    private boolean updating;
+    private boolean inTransaction;
+    private int transactionJobs;
+    // set when a rollback leaves the undone edits of the transaction in the redo stack of the editor
+    private boolean redoBlocked;
+
+    UndoHistory(EditorController editorController) {
+        this.editorController = editorController;
+        editorController.fxomDocumentProperty().subscribe(this::documentChanged);
+        editorController.getJobManager().revisionProperty().subscribe(this::revisionChanged);
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Sets how many edits can be undone one by one before the older half of them are saved as a
+     * checkpoint. By default, 50.
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("maxDepth must be positive: " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    public long getMaxRetainedBytes() {
+        return maxRetainedBytes;
+    }
+
+    /**
+     * Sets how many bytes the checkpoints can take before the oldest ones are dropped. By default, 16 MB.
+     */
+    public void setMaxRetainedBytes(long maxRetainedBytes) {
+        this.maxRetainedBytes = maxRetainedBytes;
+        trim();
+    }
+
+    /**
+     * @return the number of edits that can be undone one by one
+     */
+    public int getLiveDepth() {
+        return liveDepth;
+    }
+
+    /**
+     * @return the number of checkpoints that undo can go back to, past the live edits
+     */
+    public int getCheckpointCount() {
+        return Math.max(0, undoCheckpoints.size() - 1);
+    }
+
+    /**
+     * @return the bytes taken by the checkpoints
+     */
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    public String summary() {
+        return String.format("%d live edits, %d checkpoints, %d redo checkpoints, %d bytes retained",
+                liveDepth, getCheckpointCount(), redoCheckpoints.size(), retainedBytes);
+    }
+
+    boolean canUndo() {
+        return editorController.canUndo() || undoCheckpoints.size() > 1;
+    }
+
+    boolean canRedo() {
+        return (!redoBlocked && editorController.canRedo()) || !redoCheckpoints.isEmpty();
+    }
+
+    void undo() {
+        redoBlocked = false;
+        // jobs older than the live edits are already saved in the newest checkpoint
+        if (editorController.canUndo() && (liveDepth > 0 || undoCheckpoints.size() < 2)) {
+            int steps = groups.stream().filter(g -> g.end() == liveDepth)
+                    .mapToInt(g -> g.end() - g.start()).findFirst().orElse(1);
+            update(() -> {
+                for (int i = 0; i < steps && editorController.canUndo(); i++) {
+                    editorController.undo();
+                }
+            });
+            liveDepth = Math.max(0, liveDepth - steps);
+            return;
+        }
+        if (undoCheckpoints.size() < 2) {
+            return;
+        }
+        update(() -> {
+            if (editorController.canRedo()) {
+                // keep the undone edits, as they are lost when the checkpoint is restored
+                while (editorController.canRedo()) {
+                    editorController.redo();
+                }
+                pushRedo(editorController.getFxmlText(false));
+            }
+            pushRedo(popNewest());
+            restore(text(undoCheckpoints.peekLast(), null));
+        });
+    }
+
+    void redo() {
+        if (!redoBlocked && editorController.canRedo()) {
+            int steps = groups.stream().filter(g -> g.start() == liveDepth)
+                    .mapToInt(g -> g.end() - g.start()).findFirst().orElse(1);
+            update(() -> {
+                for (int i = 0; i < steps && editorController.canRedo(); i++) {
+                    editorController.redo();
+                }
+            });
+            liveDepth += steps;
+            return;
+        }
+        if (redoCheckpoints.isEmpty()) {
+            return;
+        }
+        update(() -> {
+            String fxmlText = popRedo();
+            pushNewest(fxmlText);
+            restore(fxmlText);
+        });
+    }
+
+    /**
+     * Starts counting the jobs of a transaction, so they can be undone in a single step
+     */
+    void beginTransaction() {
+        inTransaction = true;
+        transactionJobs = 0;
+    }
+
+    /**
+     * Ends a transaction. When committed, its jobs are grouped into a single undo step, or if the document
+     * was edited without jobs, the text it had before the transaction is saved as a checkpoint. When rolled
+     * back, its jobs are undone, and if that is not enough, the text it had before is restored.
+     *
+     * @param originalText the text of the document when the transaction began, or null if it was unknown
+     * @throws IllegalStateException if the transaction is rolled back and the document can't be restored
+     */
+    void endTransaction(boolean commit, String originalText) {
+        inTransaction = false;
+        int jobs = transactionJobs;
+        transactionJobs = 0;
+        if (commit) {
+            if (jobs > 0) {
+                liveDepth += jobs;
+                if (jobs > 1) {
+                    groups.add(new Group(liveDepth - jobs, liveDepth));
+                }
+                if (liveDepth > maxDepth) {
+                    Platform.runLater(this::spill);
+                }
+            } else if (originalText != null && editorController.canGetFxmlText()) {
+                String fxmlText = editorController.getFxmlText(false);
+                if (!fxmlText.equals(originalText)) {
+                    // the older jobs can't be undone over edits made without jobs, so they are no longer live
+                    update(() -> {
+                        pushCheckpoint(originalText);
+                        pushCheckpoint(fxmlText);
+                    });
+                    liveDepth = 0;
+                    groups.clear();
+                    trim();
+                }
+            }
+            return;
+        }
+        update(() -> {
+            for (int i = 0; i < jobs && editorController.canUndo(); i++) {
+                editorController.undo();
+            }
+        });
+        redoBlocked = jobs > 0;
+        if (editorController.canGetFxmlText() && editorController.getFxmlText(false).equals(originalText)) {
+            return;
+        }
+        if (originalText == null) {
+            throw new IllegalStateException("The document can't be restored as it was before the transaction");
+        }
+        update(() -> restore(originalText));
+    }
+
+    private void documentChanged(FXOMDocument document) {
+        if (updating) {
+            return;
+        }
+        undoCheckpoints.clear();
+        redoCheckpoints.clear();
+        groups.clear();
+        retainedBytes = 0;
+        liveDepth = 0;
+        redoBlocked = false;
+        if (document == null) {
+            return;
+        }
+        // the initial state, before any edit
+        Platform.runLater(() -> {
+            if (editorController.getFxomDocument() == document &&
+                    undoCheckpoints.isEmpty() && !editorController.canUndo()) {
+                pushNewest(editorController.getFxmlText(false));
+            }
+        });
+    }
+
+    private void revisionChanged() {
+        if (updating) {
+            return;
+        }
+        JobManager jobManager = editorController.getJobManager();
+        if (!jobManager.canUndo()) {
+            liveDepth = 0;
+            groups.clear();
+            return;
+        }
+        if (jobManager.canRedo()) {
+            // a new job clears the redo stack, so this is an undo or a redo made directly on the
+            // editor, rather than through this history
+            return;
+        }
+        redoBlocked = false;
+        groups.removeIf(g -> g.end() > liveDepth);
+        clearRedo();
+        if (inTransaction) {
+            transactionJobs++;
+            return;
+        }
+        liveDepth++;
+        if (!undoCheckpoints.isEmpty() && (liveDepth > maxDepth || isHeapLow())) {
+            Platform.runLater(this::spill);
+        }
+    }
+
+    private void spill() {
+        if (!inTransaction && (liveDepth > maxDepth || isHeapLow())) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Saves the document as the most recent checkpoint, unless it is the same, and releases the edits
+     */
+    private void checkpoint() {
+        if (!editorController.canGetFxmlText()) {
+            return;
+        }
+        String fxmlText = editorController.getFxmlText(false);
+        update(() -> {
+            if (pushCheckpoint(fxmlText)) {
+                clearRedo();
+            }
+            editorController.getJobManager().clear();
+            liveDepth = 0;
+            groups.clear();
+        });
+        trim();
+    }
+
+    /**
+     * Saves the text as the most recent checkpoint, unless it is the same
+     */
+    private boolean pushCheckpoint(String fxmlText) {
+        if (!undoCheckpoints.isEmpty() && text(undoCheckpoints.peekLast(), null).equals(fxmlText)) {
+            return false;
+        }
+        pushNewest(fxmlText);
+        return true;
+    }
+
+    private void clearRedo() {
+        redoCheckpoints.forEach(c -> retainedBytes -= c.data().length);
+        redoCheckpoints.clear();
+    }
+
+    private void restore(String fxmlText) {
+        URL location = editorController.getFxmlLocation();
+        try {
+            if (location != null) {
+                editorController.setFxmlTextAndLocation(fxmlText, location);
+            } else {
+                editorController.setFxmlText(fxmlText, false);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error restoring undo checkpoint", e);
+        }
+        liveDepth = 0;
+        groups.clear();
+    }
+
+    private void update(Runnable runnable) {
+        updating = true;
+        try {
+            runnable.run();
+        } finally {
+            updating = false;
+        }
+    }
+
+    private void pushNewest(String fxmlText) {
+        Checkpoint newest = undoCheckpoints.pollLast();
+        if (newest != null) {
+            retainedBytes -= newest.data().length;
+            addNewest(delta(text(newest, null), fxmlText));
+        }
+        addNewest(whole(fxmlText));
+    }
+
+    private String popNewest() {
+        Checkpoint newest = undoCheckpoints.pollLast();
+        retainedBytes -= newest.data().length;
+        String fxmlText = text(newest, null);
+        Checkpoint previous = undoCheckpoints.pollLast();
+        if (previous != null) {
+            retainedBytes -= previous.data().length;
+            addNewest(whole(text(previous, fxmlText)));
+        }
+        return fxmlText;
+    }
+
+    private void addNewest(Checkpoint checkpoint) {
+        undoCheckpoints.addLast(checkpoint);
+        retainedBytes += checkpoint.data().length;
+    }
+
+    private void pushRedo(String fxmlText) {
+        Checkpoint checkpoint = whole(fxmlText);
+        redoCheckpoints.push(checkpoint);
+        retainedBytes += checkpoint.data().length;
+    }
+
+    private String popRedo() {
+        Checkpoint checkpoint = redoCheckpoints.pop();
+        retainedBytes -= checkpoint.data().length;
+        return text(checkpoint, null);
+    }
+
+    private void trim() {
+        while (retainedBytes > maxRetainedBytes && undoCheckpoints.size() > 1) {
+            retainedBytes -= undoCheckpoints.pollFirst().data().length;
+        }
+    }
+
+    static Checkpoint whole(String fxmlText) {
+        return new Checkpoint(compress(fxmlText), -1, -1);
+    }
+
+    static Checkpoint delta(String older, String newer) {
+        int max = Math.min(older.length(), newer.length());
+        int prefix = 0;
+        while (prefix < max && older.charAt(prefix) == newer.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < max - prefix &&
+                older.charAt(older.length() - 1 - suffix) == newer.charAt(newer.length() - 1 - suffix)) {
+            suffix++;
+        }
+        return new Checkpoint(compress(older.substring(prefix, older.length() - suffix)), prefix, suffix);
+    }
+
+    static String text(Checkpoint checkpoint, String newer) {
+        String data = decompress(checkpoint.data());
+        if (checkpoint.isWhole()) {
+            return data;
+        }
+        return newer.substring(0, checkpoint.prefix()) + data + newer.substring(newer.length() - checkpoint.suffix());
+    }
+
+    private static byte[] compress(String text) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(text.getBytes(StandardCharsets.UTF_8));
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, text.length() / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String decompress(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && inflater.needsInput()) {
+                    break;
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static boolean isHeapLow() {
+        // the usage after the last collection, as the current one includes garbage
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()) {
+                MemoryUsage usage = pool.getCollectionUsage();
+                if (usage != null && usage.getMax() > 0 && usage.getUsed() > HEAP_THRESHOLD * usage.getMax()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.library.user.UserLibrary;
+import com.oracle.javafx.scenebuilder.kit.library.util.JarReport;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Process-wide registry of user libraries, keyed by library folder, additional jars and excluded
+ * classes, so that editors share one {@link UserLibrary}, with a single folder watcher and a single
+ * exploration of each jar. Libraries are reference counted, and stop watching once they are no
+ * longer used.
+ */
+final class UserLibraryRegistry {
+
+    private record Key(String folder, Set<Path> paths, Set<String> excludedClasses) {}
+
+    private static final class Entry {
+
+        private final Key key;
+        private final UserLibrary userLibrary;
+        private final List<Consumer<List<JarReport>>> listeners = new CopyOnWriteArrayList<>();
+        // guarded by this entry, so that a new listener gets either the last reports or the next ones
+        private List<JarReport> lastJarReports;
+        private int references;
+
+        private Entry(Key key, List<Path> paths, List<String> excludedClasses) {
+            this.key = key;
+            this.userLibrary = new UserLibrary(key.folder(), () -> paths, () -> excludedClasses);
+            userLibrary.setOnUpdatedJarReports(jarReports -> {
+                synchronized (this) {
+                    lastJarReports = List.copyOf(jarReports);
+                    listeners.forEach(listener -> listener.accept(lastJarReports));
+                }
+            });
+        }
+
+        private synchronized void addListener(Consumer<List<JarReport>> listener) {
+            listeners.add(listener);
+            if (lastJarReports != null) {
+                listener.accept(lastJarReports);
+            }
+        }
+    }
+
+    /**
+     * A reference to a shared user library, that has to be released when it is no longer used
+     */
+    static final class Handle {
+
+        private final Entry entry;
+        private final Consumer<List<JarReport>> onUpdatedJarReports;
+        private boolean released;
+
+        private Handle(Entry entry, Consumer<List<JarReport>> onUpdatedJarReports) {
+            this.entry = entry;
+            this.onUpdatedJarReports = onUpdatedJarReports;
+        }
+
+        UserLibrary getUserLibrary() {
+            return entry.userLibrary;
+        }
+
+        void release() {
+            synchronized (LIBRARIES) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                entry.listeners.remove(onUpdatedJarReports);
+                if (--entry.references == 0) {
+                    LIBRARIES.remove(entry.key);
+                    entry.userLibrary.stopWatching();
+                }
+            }
+        }
+    }
+
+    private static final Map<Key, Entry> LIBRARIES = new HashMap<>();
+
+    private UserLibraryRegistry() {}
+
+    /**
+     * Returns a handle to the user library of the folder and jars, which is created and starts
+     * watching if it isn't used yet. The excluded classes are left out of the library items.
+     * The consumer is first notified with the jar reports of the last exploration, if the library
+     * was already explored, and then once after each new exploration.
+     */
+    static Handle acquire(String folder, List<Path> paths, List<String> excludedClasses,
+                          Consumer<List<JarReport>> onUpdatedJarReports) {
+        Key key = new Key(folder, Set.copyOf(paths), Set.copyOf(excludedClasses));
+        Entry entry;
+        synchronized (LIBRARIES) {
+            entry = LIBRARIES.get(key);
+            if (entry == null) {
+                entry = new Entry(key, List.copyOf(paths), List.copyOf(excludedClasses));
+                LIBRARIES.put(key, entry);
+                entry.userLibrary.startWatching();
+            }
+            entry.references++;
+        }
+        entry.addListener(onUpdatedJarReports);
+        return new Handle(entry, onUpdatedJarReports);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import javafx.util.Duration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Outcome of a run of {@link FXMLValidator}.
+ */
+public final class ValidationReport {
+
+    public enum Kind {
+        /** A class used by an element, an fx:root or an fx:controller can't be found */
+        UNRESOLVED_CLASS,
+        /** An fx:id is referenced but not defined, or a controller field has no matching fx:id */
+        MISSING_FX_ID,
+        /** The source of an fx:include doesn't exist */
+        BROKEN_INCLUDE,
+        /** The document couldn't be loaded for any other reason */
+        LOAD_ERROR
+    }
+
+    /**
+     * An issue found in a file. The line is 0 if it is not known.
+     */
+    public record Issue(Path file, int line, Kind kind, String detail) {}
+
+    private final int fileCount;
+    private final List<Issue> issues;
+    private final Duration elapsedTime;
+    private final int cachedClasses;
+    private final long cacheHits;
+
+    ValidationReport(int fileCount, List<Issue> issues, Duration elapsedTime, int cachedClasses, long cacheHits) {
+        this.fileCount = fileCount;
+        this.issues = List.copyOf(issues);
+        this.elapsedTime = elapsedTime;
+        this.cachedClasses = cachedClasses;
+        this.cacheHits = cacheHits;
+    }
+
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * @return the issues, grouped by file in the same order as the files were given
+     */
+    public List<Issue> getIssues() {
+        return issues;
+    }
+
+    public boolean isValid() {
+        return issues.isEmpty();
+    }
+
+    public Duration getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * Writes the issues as a JSON array of objects with the fields file, line, kind and detail.
+     */
+    public void writeJson(Path path) throws IOException {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < issues.size(); i++) {
+            Issue issue = issues.get(i);
+            sb.append(i == 0 ? "\n" : ",\n")
+                    .append("  {\"file\": ").append(json(issue.file().toString()))
+                    .append(", \"line\": ").append(issue.line())
+                    .append(", \"kind\": \"").append(issue.kind()).append('"')
+                    .append(", \"detail\": ").append(json(issue.detail()))
+                    .append('}');
+        }
+        sb.append(issues.isEmpty() ? "]\n" : "\n]\n");
+        AtomicFiles.write(path, p -> Files.writeString(p, sb, StandardCharsets.UTF_8));
+    }
+
+    public String summary() {
+        long files = issues.stream().map(Issue::file).distinct().count();
+        return String.format("%d files validated in %.1f ms: %d issues in %d files (%d classes resolved, %d cache hits)",
+                fileCount, elapsedTime.toMillis(), issues.size(), files, cachedClasses, cacheHits);
+    }
+
+    private static String json(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded.demo;
+
+import com.gluonhq.scenebuilder.embedded.BatchReport;
+import com.gluonhq.scenebuilder.embedded.FXMLBatchProcessor;
+import javafx.application.Platform;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line entry point of {@link FXMLBatchProcessor}:
+ * <pre>
+ * FXMLBatch [--threads N] [--dry-run] [--report report.csv] file-or-folder...
+ * </pre>
+ * Exits with 1 if any file failed, and with 2 if the arguments are wrong.
+ */
+public class FXMLBatch {
+
+    public static void main(String[] args) throws Exception {
+        FXMLBatchProcessor.Builder builder = FXMLBatchProcessor.builder();
+        Path reportPath = null;
+        List<Path> paths = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads" -> builder.threads(Integer.parseInt(args[++i]));
+                    case "--dry-run" -> builder.dryRun(true);
+                    case "--report" -> reportPath = Path.of(args[++i]);
+                    default -> paths.add(Path.of(args[i]));
+                }
+            }
+        } catch (RuntimeException e) {
+            paths.clear();
+        }
+        if (paths.isEmpty()) {
+            System.err.println("Usage: FXMLBatch [--threads N] [--dry-run] [--report report.csv] file-or-folder...");
+            System.exit(2);
+        }
+
+        BatchReport report = builder.build().process(FXMLBatchProcessor.findFXMLFiles(paths));
+        for (BatchReport.FileResult failure : report.getFailures()) {
+            System.err.println(failure.file() + ": " + failure.error());
+        }
+        System.out.println(report.summary());
+        if (reportPath != null) {
+            report.writeCsv(reportPath);
+        }
+        Platform.exit();
+        System.exit(report.getFailures().isEmpty() ? 0 : 1);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded.demo;
+
+import com.gluonhq.scenebuilder.embedded.FXMLBatchProcessor;
+import com.gluonhq.scenebuilder.embedded.FXMLValidator;
+import com.gluonhq.scenebuilder.embedded.ValidationReport;
+import javafx.application.Platform;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line entry point of {@link FXMLValidator}:
+ * <pre>
+ * FXMLValidate [--threads N] [--json issues.json] file-or-folder...
+ * </pre>
+ * Exits with 1 if any issue was found, and with 2 if the arguments are wrong.
+ */
+public class FXMLValidate {
+
+    public static void main(String[] args) throws Exception {
+        FXMLValidator.Builder builder = FXMLValidator.builder();
+        Path jsonPath = null;
+        List<Path> paths = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads" -> builder.threads(Integer.parseInt(args[++i]));
+                    case "--json" -> jsonPath = Path.of(args[++i]);
+                    default -> paths.add(Path.of(args[i]));
+                }
+            }
+        } catch (RuntimeException e) {
+            paths.clear();
+        }
+        if (paths.isEmpty()) {
+            System.err.println("Usage: FXMLValidate [--threads N] [--json issues.json] file-or-folder...");
+            System.exit(2);
+        }
+
+        ValidationReport report;
+        try (FXMLValidator validator = builder.build()) {
+            report = validator.validate(FXMLBatchProcessor.findFXMLFiles(paths));
+        }
+        for (ValidationReport.Issue issue : report.getIssues()) {
+            System.err.println(issue.file() + ":" + issue.line() + ": " + issue.kind() + ": " + issue.detail());
+        }
+        System.out.println(report.summary());
+        if (jsonPath != null) {
+            report.writeJson(jsonPath);
+        }
+        Platform.exit();
+        System.exit(report.isValid() ? 0 : 1);
+    }
+}
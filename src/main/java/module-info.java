@@ -35,6 +35,10 @@ module EmbeddedSceneBuilderDemo {
     requires com.gluonhq.scenebuilder.kit;
     requires org.controlsfx.controls;
     requires java.logging;
+    requires java.desktop;
+    requires java.xml;
+    requires jdk.jfr;
+    requires jdk.management;
 
     uses com.oracle.javafx.scenebuilder.kit.i18n.spi.I18NResourcesProvider;
     opens com.gluonhq.scenebuilder.embedded to javafx.fxml;
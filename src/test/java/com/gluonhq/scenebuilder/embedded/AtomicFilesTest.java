@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AtomicFilesTest {
+
+    @TempDir
+    Path folder;
+
+    @BeforeEach
+    void requirePosix() {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+    }
+
+    @Test
+    void write() throws IOException {
+        Path file = folder.resolve("Main.fxml");
+        AtomicFiles.write(file, path -> Files.writeString(path, "<AnchorPane/>"));
+        assertEquals("<AnchorPane/>", Files.readString(file));
+        AtomicFiles.write(file, path -> Files.writeString(path, "<VBox/>"));
+        assertEquals("<VBox/>", Files.readString(file));
+        assertEquals(List.of(file), list(folder));
+    }
+
+    @Test
+    void createFolders() throws IOException {
+        Path file = folder.resolve("views").resolve("Main.fxml");
+        AtomicFiles.write(file, path -> Files.writeString(path, "<AnchorPane/>"));
+        assertEquals("<AnchorPane/>", Files.readString(file));
+    }
+
+    @Test
+    void keepPermissions() throws IOException {
+        Path file = folder.resolve("Main.fxml");
+        Files.writeString(file, "<AnchorPane/>");
+        Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-r-----"));
+        AtomicFiles.write(file, path -> Files.writeString(path, "<VBox/>"));
+        assertEquals("rw-r-----", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+
+        Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-rw-rw-"));
+        AtomicFiles.write(file, path -> Files.writeString(path, "<HBox/>"));
+        assertEquals("rw-rw-rw-", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+    }
+
+    @Test
+    void newFileDefaultPermissions() throws IOException {
+        Path reference = Files.createFile(folder.resolve("reference"));
+        Path file = folder.resolve("Main.fxml");
+        AtomicFiles.write(file, path -> Files.writeString(path, "<AnchorPane/>"));
+        assertEquals(Files.getPosixFilePermissions(reference), Files.getPosixFilePermissions(file));
+    }
+
+    @Test
+    void keepSymbolicLink() throws IOException {
+        Path target = folder.resolve("shared").resolve("Main.fxml");
+        Files.createDirectories(target.getParent());
+        Files.writeString(target, "<AnchorPane/>");
+        Files.setPosixFilePermissions(target, PosixFilePermissions.fromString("rw-r-----"));
+        Path link = Files.createSymbolicLink(folder.resolve("Main.fxml"), Path.of("shared", "Main.fxml"));
+        Path linkToLink = Files.createSymbolicLink(folder.resolve("Alias.fxml"), Path.of("Main.fxml"));
+
+        AtomicFiles.write(link, path -> Files.writeString(path, "<VBox/>"));
+        assertTrue(Files.isSymbolicLink(link));
+        assertEquals("<VBox/>", Files.readString(target));
+        assertEquals("rw-r-----", PosixFilePermissions.toString(Files.getPosixFilePermissions(target)));
+
+        AtomicFiles.write(linkToLink, path -> Files.writeString(path, "<HBox/>"));
+        assertTrue(Files.isSymbolicLink(linkToLink));
+        assertTrue(Files.isSymbolicLink(link));
+        assertEquals("<HBox/>", Files.readString(target));
+        assertEquals(List.of(target), list(target.getParent()));
+    }
+
+    @Test
+    void danglingSymbolicLink() throws IOException {
+        Path target = folder.resolve("shared").resolve("Main.fxml");
+        Path link = Files.createSymbolicLink(folder.resolve("Main.fxml"), Path.of("shared", "Main.fxml"));
+
+        AtomicFiles.write(link, path -> Files.writeString(path, "<AnchorPane/>"));
+        assertTrue(Files.isSymbolicLink(link));
+        assertEquals("<AnchorPane/>", Files.readString(target));
+    }
+
+    @Test
+    void failedWrite() throws IOException {
+        Path file = folder.resolve("Main.fxml");
+        Files.writeString(file, "<AnchorPane/>");
+        assertThrows(IOException.class, () -> AtomicFiles.write(file, path -> {
+            Files.writeString(path, "<VB");
+            throw new IOException("Disk full");
+        }));
+        assertEquals("<AnchorPane/>", Files.readString(file));
+        assertEquals(List.of(file), list(folder));
+    }
+
+    private static List<Path> list(Path folder) throws IOException {
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.filter(path -> !Files.isDirectory(path) && !Files.isSymbolicLink(path)).sorted().toList();
+        }
+    }
+}
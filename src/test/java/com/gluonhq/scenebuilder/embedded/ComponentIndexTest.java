@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.gluonhq.scenebuilder.embedded.ComponentIndex.ClassInfo;
+import com.gluonhq.scenebuilder.embedded.ComponentIndex.Hierarchy;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonBase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComponentIndexTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void readClassHeader() throws IOException {
+        ClassInfo button = ComponentIndex.readClassHeader(ByteBuffer.wrap(bytes(Button.class)));
+        assertEquals("javafx.scene.control.Button", button.name());
+        assertEquals("javafx.scene.control.ButtonBase", button.superName());
+        assertTrue(button.isInstantiable());
+
+        // long and double constants take two slots of the constant pool
+        ClassInfo longInfo = ComponentIndex.readClassHeader(ByteBuffer.wrap(bytes(Long.class)));
+        assertEquals("java.lang.Long", longInfo.name());
+        assertEquals("java.lang.Number", longInfo.superName());
+        ClassInfo doubleInfo = ComponentIndex.readClassHeader(ByteBuffer.wrap(bytes(Double.class)));
+        assertEquals("java.lang.Double", doubleInfo.name());
+    }
+
+    @Test
+    void instantiableClasses() throws IOException {
+        assertFalse(ComponentIndex.readClassHeader(ByteBuffer.wrap(bytes(ButtonBase.class))).isInstantiable());
+        assertFalse(ComponentIndex.readClassHeader(ByteBuffer.wrap(bytes(Runnable.class))).isInstantiable());
+        assertFalse(new ClassInfo("a.Hidden", "javafx.scene.layout.Pane", 0).isInstantiable());
+        assertTrue(new ClassInfo("a.Shown", "javafx.scene.layout.Pane", Modifier.PUBLIC | Modifier.FINAL).isInstantiable());
+    }
+
+    @Test
+    void readClassHeaderRejectsInvalidData() {
+        assertNull(ComponentIndex.readClassHeader(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6, 7, 8})));
+        assertNull(ComponentIndex.readClassHeader(ByteBuffer.wrap(new byte[0])));
+        byte[] truncated = new byte[] {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 65, 0, 50};
+        assertNull(ComponentIndex.readClassHeader(ByteBuffer.wrap(truncated)));
+    }
+
+    @Test
+    void indexStoredAndDeflatedEntries() throws IOException {
+        Path jar = folder.resolve("components.jar");
+        try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(jar))) {
+            stored(jos, "javafx/scene/control/Button.class", bytes(Button.class));
+            deflated(jos, "javafx/scene/control/ButtonBase.class", bytes(ButtonBase.class));
+            deflated(jos, "java/lang/Long.class", bytes(Long.class));
+            stored(jos, "module-info.class", new byte[] {1, 2, 3});
+            deflated(jos, "META-INF/Skipped.class", bytes(Double.class));
+            deflated(jos, "broken/Broken.class", new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+            deflated(jos, "README.txt", "not a class".getBytes());
+            jos.setComment("the end of central directory record is found before this comment");
+        }
+
+        List<ClassInfo> classes = ComponentIndex.indexJar(jar, Files.size(jar));
+        assertEquals(List.of("java.lang.Long", "javafx.scene.control.Button", "javafx.scene.control.ButtonBase"),
+                classes.stream().map(ClassInfo::name).sorted().toList());
+        ClassInfo button = classes.stream().filter(c -> c.name().endsWith("Button")).findFirst().orElseThrow();
+        assertEquals("javafx.scene.control.ButtonBase", button.superName());
+        assertEquals(Button.class.getModifiers() & Modifier.PUBLIC, button.accessFlags() & Modifier.PUBLIC);
+    }
+
+    @Test
+    void indexEmptyJar() throws IOException {
+        Path jar = folder.resolve("empty.jar");
+        try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(jar))) {
+            deflated(jos, "README.txt", "nothing".getBytes());
+        }
+        assertEquals(List.of(), ComponentIndex.indexJar(jar, Files.size(jar)));
+    }
+
+    @Test
+    void indexInvalidJar() throws IOException {
+        Path jar = folder.resolve("invalid.jar");
+        Files.write(jar, new byte[4096]);
+        assertThrows(IOException.class, () -> ComponentIndex.indexJar(jar, Files.size(jar)));
+    }
+
+    @Test
+    void hierarchy() {
+        Hierarchy hierarchy = new Hierarchy(Map.of(
+                "a.Gauge", "a.AbstractGauge",
+                "a.AbstractGauge", "javafx.scene.control.Control",
+                "a.GaugeConverter", "javafx.util.StringConverter",
+                "a.Loop", "a.Loop"));
+        assertTrue(hierarchy.extendsNode("javafx.scene.control.Control"));
+        assertFalse(hierarchy.extendsNode("javafx.util.StringConverter"));
+        assertFalse(hierarchy.extendsNode("java.lang.Object"));
+        assertTrue(hierarchy.extendsNode("a.Gauge"));
+        assertFalse(hierarchy.extendsNode("a.GaugeConverter"));
+        // classes that aren't indexed might still be nodes
+        assertTrue(hierarchy.extendsNode("b.Unknown"));
+        assertFalse(hierarchy.extendsNode("a.Loop"));
+        assertFalse(hierarchy.extendsNode(null));
+        assertFalse(hierarchy.extendsNode(""));
+    }
+
+    @Test
+    void candidateClasses() throws IOException {
+        Path components = folder.resolve("components.jar");
+        try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(components))) {
+            deflated(jos, "javafx/scene/control/Button.class", bytes(Button.class));
+            deflated(jos, "javafx/scene/control/ButtonBase.class", bytes(ButtonBase.class));
+        }
+        Path utilities = folder.resolve("utilities.jar");
+        try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(utilities))) {
+            deflated(jos, "java/lang/Long.class", bytes(Long.class));
+        }
+        Path missing = folder.resolve("missing.jar");
+
+        ComponentIndex index = ComponentIndex.inMemory();
+        assertTrue(index.update(List.of(components, utilities, missing)));
+        assertFalse(index.update(List.of(components, utilities)));
+        Hierarchy hierarchy = index.hierarchy();
+
+        assertTrue(index.hasCandidateClasses(components, LibraryFilter.ALL, hierarchy));
+        assertFalse(index.hasCandidateClasses(utilities, LibraryFilter.ALL, hierarchy));
+        // jars that aren't indexed have to be scanned
+        assertTrue(index.hasCandidateClasses(missing, LibraryFilter.ALL, hierarchy));
+
+        LibraryFilter filter = LibraryFilter.builder().excludePackages("javafx.scene.control").build();
+        assertFalse(index.hasCandidateClasses(components, filter, hierarchy));
+        assertEquals(List.of("javafx.scene.control.Button"), index.excludedComponents(components, filter, hierarchy));
+        assertEquals(List.of(), index.excludedComponents(components, LibraryFilter.ALL, hierarchy));
+
+        Files.delete(utilities);
+        assertTrue(index.prune());
+        assertNull(index.get(utilities));
+    }
+
+    private static byte[] bytes(Class<?> type) throws IOException {
+        try (InputStream is = type.getResourceAsStream(type.getSimpleName() + ".class")) {
+            return is.readAllBytes();
+        }
+    }
+
+    private static void stored(JarOutputStream jos, String name, byte[] data) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(data.length);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        entry.setCrc(crc.getValue());
+        write(jos, entry, data);
+    }
+
+    private static void deflated(JarOutputStream jos, String name, byte[] data) throws IOException {
+        write(jos, new ZipEntry(name), data);
+    }
+
+    private static void write(JarOutputStream jos, ZipEntry entry, byte[] data) throws IOException {
+        jos.putNextEntry(entry);
+        jos.write(data);
+        jos.closeEntry();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EditorMetricsTest {
+
+    @Test
+    void smallValuesHaveTheirOwnBucket() {
+        for (long value = 0; value < 8; value++) {
+            int index = EditorMetrics.Histogram.index(value);
+            assertEquals(value, index);
+            assertEquals(value, EditorMetrics.Histogram.upperBound(index));
+        }
+    }
+
+    @Test
+    void bucketsAreContiguousAndOrdered() {
+        long previousBound = -1;
+        for (int index = 0; index < EditorMetrics.Histogram.index(Long.MAX_VALUE); index++) {
+            long bound = EditorMetrics.Histogram.upperBound(index);
+            assertTrue(bound > previousBound, "bucket " + index);
+            // the first value of each bucket maps to it
+            assertEquals(index, EditorMetrics.Histogram.index(previousBound + 1));
+            assertEquals(index, EditorMetrics.Histogram.index(bound));
+            previousBound = bound;
+        }
+    }
+
+    @Test
+    void bucketErrorIsBelowAnEighth() {
+        for (long value = 8; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+            long bound = EditorMetrics.Histogram.upperBound(EditorMetrics.Histogram.index(value));
+            assertTrue(bound >= value);
+            assertTrue(bound - value <= value / 8, "value " + value + ", bound " + bound);
+        }
+        assertEquals(EditorMetrics.Histogram.index(Long.MAX_VALUE), (64 - 3) * 8 - 1);
+    }
+
+    @Test
+    void percentilesOfUniformDurations() {
+        EditorMetrics.Histogram histogram = new EditorMetrics.Histogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+        assertWithin(500_000_000L, histogram.percentile(50));
+        assertWithin(900_000_000L, histogram.percentile(90));
+        assertWithin(990_000_000L, histogram.percentile(99));
+        assertEquals(1_000_000_000L, histogram.percentile(100));
+        assertWithin(1_000_000L, histogram.percentile(0));
+    }
+
+    @Test
+    void percentilesNeverExceedTheMaximum() {
+        EditorMetrics.Histogram histogram = new EditorMetrics.Histogram();
+        histogram.record(1_000_001);
+        assertEquals(1_000_001, histogram.percentile(50));
+        assertEquals(1_000_001, histogram.percentile(99));
+    }
+
+    @Test
+    void emptyAndResetHistograms() {
+        EditorMetrics.Histogram histogram = new EditorMetrics.Histogram();
+        assertEquals(0, histogram.percentile(50));
+        histogram.record(-5);
+        assertEquals(0, histogram.percentile(100));
+        histogram.record(42);
+        histogram.reset();
+        assertEquals(0, histogram.percentile(99));
+    }
+
+    @Test
+    void summariesOnlyListPerformedActions() {
+        EditorMetrics metrics = new EditorMetrics();
+        assertTrue(metrics.getSummaries().isEmpty());
+        assertEquals(0, metrics.getCount(EditorAction.COPY));
+        assertEquals(0, metrics.getPercentile(EditorAction.COPY, 50).toMillis());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual - expected <= expected / 8, "expected ~" + expected + ", got " + actual);
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.gluonhq.scenebuilder.embedded.ValidationReport.Issue;
+import com.gluonhq.scenebuilder.embedded.ValidationReport.Kind;
+import javafx.beans.Observable;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.Pane;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FXMLValidatorTest {
+
+    private static final String CONTROLLER = FXMLValidatorTest.class.getName() + ".SampleController";
+
+    @TempDir
+    Path folder;
+
+    private FXMLValidator validator;
+
+    public static class SampleController {
+        @FXML
+        private Button okButton;
+        @FXML
+        private Label statusLabel;
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        if (validator != null) {
+            validator.close();
+        }
+    }
+
+    @Test
+    void validDocument() throws IOException {
+        write("Footer.fxml", "<Label/>");
+        Path file = write("Main.fxml", """
+                <?import javafx.scene.control.*?>
+                <?import javafx.scene.layout.GridPane?>
+                <GridPane xmlns:fx="http://javafx.com/fxml/1" fx:controller="%s">
+                  <Button fx:id="okButton" GridPane.rowIndex="1"/>
+                  <Label fx:id="statusLabel" labelFor="$okButton" text="${okButton.text}"/>
+                  <fx:reference source="statusLabel"/>
+                  <fx:include source="Footer.fxml"/>
+                  <Label text="$$1"/>
+                </GridPane>
+                """.formatted(CONTROLLER));
+        assertEquals(List.of(), validator().check(file));
+    }
+
+    @Test
+    void unresolvedClasses() throws IOException {
+        Path file = write("Main.fxml", """
+                <?import javafx.scene.layout.*?>
+                <VBox xmlns:fx="http://javafx.com/fxml/1">
+                  <Gauge/>
+                  <Gauge/>
+                  <com.example.Tile/>
+                  <Pane Flow.alignment="CENTER"/>
+                </VBox>
+                """);
+        assertEquals(List.of(
+                new Issue(file, 4, Kind.UNRESOLVED_CLASS, "Class 'Gauge' not found"),
+                new Issue(file, 6, Kind.UNRESOLVED_CLASS, "Class 'com.example.Tile' not found"),
+                new Issue(file, 7, Kind.UNRESOLVED_CLASS, "Class 'Flow' not found")),
+                validator().check(file));
+    }
+
+    @Test
+    void nestedClasses() throws IOException {
+        Path file = write("Main.fxml", """
+                <?import javafx.scene.control.*?>
+                <TableView xmlns:fx="http://javafx.com/fxml/1">
+                  <columnResizePolicy><TableView.ResizeFeatures fx:constant="x"/></columnResizePolicy>
+                  <javafx.scene.control.ButtonBar.ButtonData fx:constant="OK_DONE"/>
+                </TableView>
+                """);
+        assertEquals(List.of(), validator().check(file));
+    }
+
+    @Test
+    void undefinedReferences() throws IOException {
+        Path file = write("Main.fxml", """
+                <?import javafx.scene.control.*?>
+                <?import javafx.scene.layout.*?>
+                <VBox xmlns:fx="http://javafx.com/fxml/1">
+                  <Label fx:id="title" text="$location"/>
+                  <Label labelFor="$field"/>
+                  <Label text="${title.text}"/>
+                  <fx:reference source="button"/>
+                </VBox>
+                """);
+        assertEquals(List.of(
+                new Issue(file, 6, Kind.MISSING_FX_ID, "fx:id 'field' is referenced but not defined"),
+                new Issue(file, 8, Kind.MISSING_FX_ID, "fx:id 'button' is referenced but not defined")),
+                validator().check(file));
+    }
+
+    @Test
+    void brokenIncludes() throws IOException {
+        Files.createDirectories(folder.resolve("parts"));
+        write("parts/Header.fxml", "<Label/>");
+        Path file = write("Main.fxml", """
+                <?import javafx.scene.layout.*?>
+                <VBox xmlns:fx="http://javafx.com/fxml/1">
+                  <fx:include source="parts/Header.fxml"/>
+                  <fx:include source="parts/Footer.fxml"/>
+                  <fx:include source="/com/example/Missing.fxml"/>
+                  <fx:include/>
+                </VBox>
+                """);
+        assertEquals(List.of(
+                new Issue(file, 5, Kind.BROKEN_INCLUDE, "Included file 'parts/Footer.fxml' not found"),
+                new Issue(file, 6, Kind.BROKEN_INCLUDE, "Included file '/com/example/Missing.fxml' not found"),
+                new Issue(file, 7, Kind.BROKEN_INCLUDE, "fx:include without source")),
+                validator().check(file));
+    }
+
+    @Test
+    void controllerFields() throws IOException {
+        Path file = write("Main.fxml", """
+                <?import javafx.scene.control.*?>
+                <?import javafx.scene.layout.*?>
+                <VBox xmlns:fx="http://javafx.com/fxml/1" fx:controller="%s">
+                  <Button fx:id="okButton"/>
+                </VBox>
+                """.formatted(CONTROLLER));
+        assertEquals(List.of(new Issue(file, 4, Kind.MISSING_FX_ID,
+                        "Controller field SampleController.statusLabel has no matching fx:id")),
+                validator().check(file));
+
+        Path missing = write("Missing.fxml", """
+                <?import javafx.scene.layout.*?>
+                <VBox xmlns:fx="http://javafx.com/fxml/1" fx:controller="com.example.MainController"/>
+                """);
+        assertEquals(List.of(new Issue(missing, 3, Kind.UNRESOLVED_CLASS,
+                        "Controller class 'com.example.MainController' not found")),
+                validator().check(missing));
+    }
+
+    @Test
+    void loadErrors() throws IOException {
+        Path file = write("Main.fxml", """
+                <?import javafx.scene.layout.*?>
+                <VBox xmlns:fx="http://javafx.com/fxml/1">
+                  <Pane>
+                </VBox>
+                """);
+        List<Issue> issues = validator().check(file);
+        assertEquals(1, issues.size());
+        assertEquals(Kind.LOAD_ERROR, issues.get(0).kind());
+        assertEquals(5, issues.get(0).line());
+
+        Path missing = folder.resolve("Missing.fxml");
+        issues = validator().check(missing);
+        assertEquals(1, issues.size());
+        assertEquals(new Issue(missing, 0, Kind.LOAD_ERROR, missing.toString()), issues.get(0));
+    }
+
+    @Test
+    void linkageErrors() throws IOException, URISyntaxException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(compiler != null);
+        Path classes = Files.createDirectories(folder.resolve("classes"));
+        Path sources = Files.createDirectories(folder.resolve("sources").resolve("gen"));
+        Files.writeString(sources.resolve("Missing.java"), "package gen; public class Missing extends javafx.scene.layout.Pane {}");
+        Files.writeString(sources.resolve("Broken.java"), "package gen; public class Broken extends Missing {}");
+        Files.writeString(sources.resolve("BrokenController.java"),
+                "package gen; public class BrokenController { @javafx.fxml.FXML private Missing content; }");
+        String classPath = String.join(File.pathSeparator,
+                location(FXML.class), location(Pane.class), location(Observable.class));
+        int result = compiler.run(null, null, null, "-d", classes.toString(), "-cp", classPath,
+                sources.resolve("Missing.java").toString(), sources.resolve("Broken.java").toString(),
+                sources.resolve("BrokenController.java").toString());
+        assertEquals(0, result);
+        Files.delete(classes.resolve("gen").resolve("Missing.class"));
+
+        validator = FXMLValidator.builder().paths(List.of(classes)).build();
+        Path file = write("Main.fxml", """
+                <?import gen.*?>
+                <?import javafx.scene.layout.*?>
+                <VBox xmlns:fx="http://javafx.com/fxml/1" fx:controller="gen.BrokenController">
+                  <Broken/>
+                </VBox>
+                """);
+        for (int i = 0; i < 2; i++) {
+            // classes that fail to link are not cached, so the error is reported again
+            List<Issue> issues = validator.check(file);
+            assertEquals(2, issues.size());
+            assertEquals(Kind.UNRESOLVED_CLASS, issues.get(0).kind());
+            assertEquals(5, issues.get(0).line());
+            assertTrue(issues.get(0).detail().startsWith("Class 'Broken' can't be loaded: "), issues.get(0).detail());
+            assertEquals(Kind.UNRESOLVED_CLASS, issues.get(1).kind());
+            assertEquals(4, issues.get(1).line());
+            assertTrue(issues.get(1).detail().startsWith("Controller class 'gen.BrokenController' can't be loaded: "),
+                    issues.get(1).detail());
+        }
+    }
+
+    private FXMLValidator validator() {
+        if (validator == null) {
+            validator = FXMLValidator.builder().paths(List.of()).build();
+        }
+        return validator;
+    }
+
+    private static String location(Class<?> type) throws URISyntaxException {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    private Path write(String name, String fxml) throws IOException {
+        return Files.writeString(folder.resolve(name), "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + fxml);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FXMLWriterTest {
+
+    @TempDir
+    Path folder;
+
+    private final FXMLWriter writer = new FXMLWriter(Runnable::run);
+
+    @Test
+    void skipUnchangedContent() throws IOException {
+        Path file = folder.resolve("Main.fxml");
+        assertTrue(writer.write(file, "<AnchorPane/>").join());
+        assertFalse(writer.write(file, "<AnchorPane/>").join());
+        assertTrue(writer.write(file, "<VBox/>").join());
+        assertEquals("<VBox/>", Files.readString(file));
+
+        Path other = folder.resolve("Other.fxml");
+        assertTrue(writer.write(other, "<VBox/>").join());
+        assertEquals("<VBox/>", Files.readString(other));
+    }
+
+    @Test
+    void writeFileChangedByOthers() throws IOException {
+        Path file = folder.resolve("Main.fxml");
+        assertTrue(writer.write(file, "<AnchorPane/>").join());
+        Files.writeString(file, "<AnchorPane><Button/></AnchorPane>");
+        assertTrue(writer.write(file, "<AnchorPane/>").join());
+        assertEquals("<AnchorPane/>", Files.readString(file));
+    }
+
+    @Test
+    void writeFileDeletedByOthers() throws IOException {
+        Path file = folder.resolve("Main.fxml");
+        assertTrue(writer.write(file, "<AnchorPane/>").join());
+        Files.delete(file);
+        assertTrue(writer.write(file, "<AnchorPane/>").join());
+        assertEquals("<AnchorPane/>", Files.readString(file));
+    }
+}
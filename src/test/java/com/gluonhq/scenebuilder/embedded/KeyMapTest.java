@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.oracle.javafx.scenebuilder.kit.editor.EditorPlatform;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyMapTest {
+
+    private static final KeyCombination.Modifier MODIFIER =
+            EditorPlatform.IS_MAC ? KeyCombination.META_DOWN : KeyCombination.CONTROL_DOWN;
+
+    @Test
+    void defaultBindings() {
+        KeyMap keyMap = new KeyMap();
+        assertEquals(EditorAction.SELECT_ALL, keyMap.find(shortcut(KeyCode.A, false)));
+        assertEquals(EditorAction.SELECT_NONE, keyMap.find(shortcut(KeyCode.A, true)));
+        assertEquals(EditorAction.COPY, keyMap.find(shortcut(KeyCode.C, false)));
+        assertEquals(EditorAction.REDO, keyMap.find(shortcut(KeyCode.Y, false)));
+        assertEquals(EditorAction.SAVE, keyMap.find(shortcut(KeyCode.S, false)));
+    }
+
+    @Test
+    void modifiersMustMatch() {
+        KeyMap keyMap = new KeyMap();
+        assertNull(keyMap.find(event(KeyCode.C, false, false, false, false)));
+        assertNull(keyMap.find(event(KeyCode.C, true, !EditorPlatform.IS_MAC, false, EditorPlatform.IS_MAC)));
+        assertNull(keyMap.find(event(KeyCode.C, false, !EditorPlatform.IS_MAC, true, EditorPlatform.IS_MAC)));
+    }
+
+    @Test
+    void backSpaceDeletesWithAnyModifier() {
+        KeyMap keyMap = new KeyMap();
+        assertEquals(EditorAction.DELETE, keyMap.find(event(KeyCode.BACK_SPACE, false, false, false, false)));
+        assertEquals(EditorAction.DELETE, keyMap.find(event(KeyCode.BACK_SPACE, true, true, true, true)));
+    }
+
+    @Test
+    void unboundKeys() {
+        KeyMap keyMap = new KeyMap();
+        assertNull(keyMap.find(shortcut(KeyCode.Q, false)));
+        assertNull(keyMap.find(event(KeyCode.F1, false, false, false, false)));
+    }
+
+    @Test
+    void bindReplacesTheSameCombination() {
+        KeyMap keyMap = new KeyMap();
+        KeyCodeCombination combination = new KeyCodeCombination(KeyCode.C, MODIFIER);
+        keyMap.bind(combination, EditorAction.DUPLICATE);
+        assertEquals(EditorAction.DUPLICATE, keyMap.find(shortcut(KeyCode.C, false)));
+        assertEquals(1, keyMap.getBindings().stream().filter(b -> b.combination().equals(combination)).count());
+        assertTrue(keyMap.getBindings(EditorAction.COPY).isEmpty());
+        assertEquals(2, keyMap.getBindings(EditorAction.DUPLICATE).size());
+    }
+
+    @Test
+    void bindNewKey() {
+        KeyMap keyMap = new KeyMap();
+        keyMap.bind(new KeyCodeCombination(KeyCode.F5), EditorAction.SAVE);
+        assertEquals(EditorAction.SAVE, keyMap.find(event(KeyCode.F5, false, false, false, false)));
+        assertEquals(EditorAction.SAVE, keyMap.find(shortcut(KeyCode.S, false)));
+    }
+
+    @Test
+    void unbindAndDisable() {
+        KeyMap keyMap = new KeyMap();
+        keyMap.unbind(new KeyCodeCombination(KeyCode.A, MODIFIER));
+        assertNull(keyMap.find(shortcut(KeyCode.A, false)));
+        assertEquals(EditorAction.SELECT_NONE, keyMap.find(shortcut(KeyCode.A, true)));
+
+        keyMap.disable(EditorAction.REDO);
+        assertNull(keyMap.find(shortcut(KeyCode.Y, false)));
+        assertEquals(List.of(), keyMap.getBindings(EditorAction.REDO));
+    }
+
+    @Test
+    void resetRestoresTheDefaults() {
+        KeyMap keyMap = new KeyMap();
+        List<KeyMap.Binding> defaults = keyMap.getBindings();
+        keyMap.disable(EditorAction.COPY);
+        keyMap.bind(new KeyCodeCombination(KeyCode.F5), EditorAction.SAVE);
+        keyMap.reset();
+        assertEquals(defaults, keyMap.getBindings());
+        assertEquals(EditorAction.COPY, keyMap.find(shortcut(KeyCode.C, false)));
+        assertNull(keyMap.find(event(KeyCode.F5, false, false, false, false)));
+    }
+
+    private static KeyEvent shortcut(KeyCode code, boolean shift) {
+        return event(code, shift, !EditorPlatform.IS_MAC, false, EditorPlatform.IS_MAC);
+    }
+
+    private static KeyEvent event(KeyCode code, boolean shift, boolean control, boolean alt, boolean meta) {
+        return new KeyEvent(KeyEvent.KEY_PRESSED, "", "", code, shift, control, alt, meta);
+    }
+}
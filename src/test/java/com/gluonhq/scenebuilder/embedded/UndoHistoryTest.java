@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2024, Gluon and/or its affiliates.
+ * All rights reserved. Use is subject to license terms.
+ *
+ * This file is available and licensed under the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  - Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the distribution.
+ *  - Neither the name of Gluon nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.scenebuilder.embedded;
+
+import com.gluonhq.scenebuilder.embedded.UndoHistory.Checkpoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UndoHistoryTest {
+
+    @Test
+    void wholeCheckpoint() {
+        String fxmlText = document(200, "Button");
+        Checkpoint checkpoint = UndoHistory.whole(fxmlText);
+        assertTrue(checkpoint.isWhole());
+        assertTrue(checkpoint.data().length < fxmlText.length() / 4);
+        assertEquals(fxmlText, UndoHistory.text(checkpoint, null));
+        assertEquals("", UndoHistory.text(UndoHistory.whole(""), null));
+    }
+
+    @Test
+    void deltaCheckpoint() {
+        String older = document(200, "Button");
+        String newer = older.replace("<Button text=\"Item 120\"/>", "<Label text=\"Élément 120\"/>");
+        Checkpoint checkpoint = UndoHistory.delta(older, newer);
+        assertFalse(checkpoint.isWhole());
+        assertTrue(checkpoint.data().length < UndoHistory.whole(older).data().length / 10);
+        assertEquals(older, UndoHistory.text(checkpoint, newer));
+    }
+
+    @Test
+    void deltaCheckpointEdges() {
+        assertRoundTrip("<VBox/>", "<VBox/>");
+        assertRoundTrip("", "<VBox/>");
+        assertRoundTrip("<VBox/>", "");
+        assertRoundTrip("<VBox><Button/></VBox>", "<VBox></VBox>");
+        assertRoundTrip("<VBox></VBox>", "<VBox><Button/></VBox>");
+        // repeated characters around the change, where prefix and suffix could overlap
+        assertRoundTrip("aaaa", "aaaaaa");
+        assertRoundTrip("aaaaaa", "aaaa");
+        assertRoundTrip("abab", "ab");
+    }
+
+    private static void assertRoundTrip(String older, String newer) {
+        assertEquals(older, UndoHistory.text(UndoHistory.delta(older, newer), newer));
+    }
+
+    private static String document(int items, String type) {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<VBox>\n");
+        for (int i = 0; i < items; i++) {
+            sb.append("  <").append(type).append(" text=\"Item ").append(i).append("\"/>\n");
+        }
+        return sb.append("</VBox>\n").toString();
+    }
+}